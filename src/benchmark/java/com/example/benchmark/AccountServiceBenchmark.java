@@ -0,0 +1,80 @@
+package com.example.benchmark;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.entity.Account;
+import com.example.exception.BadRequestException;
+import com.example.exception.DuplicateUsernameException;
+import com.example.exception.UnauthorizedException;
+import com.example.service.AccountService;
+
+/**
+ * Throughput and latency distribution of AccountService.verifyLogin and registerAccount against a seeded database.
+ * Both are dominated by password hashing; the work factor defaults to the production setting
+ * and can be changed with -p passwordIterations=N (see also LoginBenchmark).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class AccountServiceBenchmark {
+    @Param({"10000"})
+    public int seedAccounts;
+
+    @Param({"310000"})
+    public int passwordIterations;
+
+    private ConfigurableApplicationContext app;
+    private AccountService accountService;
+    private final AtomicInteger registrations = new AtomicInteger();
+
+    /**
+     * Per-thread random source with a fixed seed, so every run logs in as the same sequence of accounts.
+     */
+    @State(Scope.Thread)
+    public static class Picker {
+        private final SplittableRandom random = new SplittableRandom(42);
+    }
+
+    @Setup(Level.Trial)
+    public void startApp() {
+        app = BenchmarkApp.start("--socialmedia.security.password-iterations=" + passwordIterations);
+        BenchmarkApp.seed(app, seedAccounts, 0);
+        accountService = app.getBean(AccountService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApp() {
+        BenchmarkApp.stop(app);
+    }
+
+    @Benchmark
+    public Account verifyLogin(Picker picker) throws UnauthorizedException {
+        String username = "user" + picker.random.nextInt(seedAccounts);
+        return accountService.verifyLogin(new Account(username, BenchmarkApp.SEEDED_PASSWORD));
+    }
+
+    @Benchmark
+    public Account registerAccount() throws DuplicateUsernameException, BadRequestException {
+        return accountService.registerAccount(new Account("benchmark" + registrations.incrementAndGet(), BenchmarkApp.SEEDED_PASSWORD));
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.SocialMediaApp;
+import com.example.repository.ShardedMessageRepository;
+import com.example.service.AccountIdSet;
+import com.example.service.MessageSearchIndex;
+import com.example.service.PasswordHasher;
+import com.example.service.UsernameFilter;
+
+/**
+ * Starts SocialMediaApp for a benchmark trial and seeds its database with a reproducible data set.
+ */
+final class BenchmarkApp {
+    /**
+     * Seeded accounts and messages use IDs from here up, clear of the rows in data.sql.
+     */
+    static final int FIRST_SEEDED_ID = 100_000;
+    static final String SEEDED_PASSWORD = "password";
+    static final long SEEDED_EPOCH = 1669947792L;
+    private static final int INSERT_BATCH = 1_000;
+
+    private BenchmarkApp() {
+    }
+
+    /**
+     *  @param  args    Extra application arguments, e.g. "--socialmedia.security.password-iterations=1000".
+     *  @return The running application, on a random port with quiet logging.
+     */
+    static ConfigurableApplicationContext start(String... args) {
+        List<String> allArgs = new ArrayList<>(Arrays.asList("--server.port=0", "--logging.level.root=WARN"));
+        allArgs.addAll(Arrays.asList(args));
+        return SpringApplication.run(SocialMediaApp.class, allArgs.toArray(new String[0]));
+    }
+
+    /**
+     *  Inserts accounts user0..user(accounts-1), all with SEEDED_PASSWORD, and messagesPerAccount messages for each.
+     *  Account i has ID FIRST_SEEDED_ID + i; message j of account i has ID FIRST_SEEDED_ID + i * messagesPerAccount + j
+     *  and timePostedEpoch SEEDED_EPOCH + j. The ID sequences are moved past the seeded rows, and the in-memory
+     *  structures loaded at startup (account IDs, usernames, the search index) are brought up to date. With message
+     *  shards enabled, the seeded messages are then imported into the shards.
+     */
+    static void seed(ConfigurableApplicationContext app, int accounts, int messagesPerAccount) {
+        JdbcTemplate jdbcTemplate = app.getBean(JdbcTemplate.class);
+        String passwordHash = app.getBean(PasswordHasher.class).hash(SEEDED_PASSWORD);
+        UsernameFilter usernameFilter = app.getBean(UsernameFilter.class);
+        AccountIdSet accountIds = app.getBean(AccountIdSet.class);
+
+        List<Object[]> rows = new ArrayList<>(INSERT_BATCH);
+        for(int i = 0; i < accounts; i++) {
+            rows.add(new Object[] {FIRST_SEEDED_ID + i, "user" + i, passwordHash});
+            usernameFilter.add("user" + i);
+            accountIds.add(FIRST_SEEDED_ID + i);
+            if(rows.size() == INSERT_BATCH) {
+                jdbcTemplate.batchUpdate("insert into account (accountId, username, password) values (?, ?, ?)", rows);
+                rows.clear();
+            }
+        }
+        jdbcTemplate.batchUpdate("insert into account (accountId, username, password) values (?, ?, ?)", rows);
+        rows.clear();
+
+        for(int i = 0; i < accounts; i++) {
+            for(int j = 0; j < messagesPerAccount; j++) {
+                rows.add(new Object[] {FIRST_SEEDED_ID + i * messagesPerAccount + j, FIRST_SEEDED_ID + i,
+                        "seeded message " + j + " from user" + i, SEEDED_EPOCH + j});
+                if(rows.size() == INSERT_BATCH) {
+                    jdbcTemplate.batchUpdate("insert into message (messageId, postedBy, messageText, timePostedEpoch) values (?, ?, ?, ?)", rows);
+                    rows.clear();
+                }
+            }
+        }
+        jdbcTemplate.batchUpdate("insert into message (messageId, postedBy, messageText, timePostedEpoch) values (?, ?, ?, ?)", rows);
+
+        int nextId = FIRST_SEEDED_ID + Math.max(accounts, accounts * messagesPerAccount);
+        jdbcTemplate.execute("alter sequence account_seq restart with " + nextId);
+        jdbcTemplate.execute("alter sequence message_seq restart with " + nextId);
+        app.getBeanProvider(ShardedMessageRepository.class).ifAvailable(ShardedMessageRepository::importMessages);
+        app.getBean(MessageSearchIndex.class).warm();
+    }
+
+    static void stop(ConfigurableApplicationContext app) {
+        SpringApplication.exit(app);
+    }
+}
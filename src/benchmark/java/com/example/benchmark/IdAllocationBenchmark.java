@@ -0,0 +1,91 @@
+package com.example.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.dto.MessageBatchItem;
+import com.example.entity.Account;
+import com.example.entity.Message;
+import com.example.exception.BadRequestException;
+import com.example.exception.ServiceUnavailableException;
+import com.example.exception.DuplicateUsernameException;
+import com.example.service.AccountService;
+import com.example.service.MessageService;
+
+/**
+ * Insert throughput of AccountService.registerAccount and MessageService.addMessage/addMessages
+ * with IDs allocated one sequence call at a time (incrementSize = 1) versus from pooled blocks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class IdAllocationBenchmark {
+    private static final int BATCH_SIZE = 100;
+
+    @Param({"1", "50"})
+    public int incrementSize;
+
+    private ConfigurableApplicationContext app;
+    private AccountService accountService;
+    private MessageService messageService;
+    private final AtomicInteger usernameCounter = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void startApp() {
+        app = BenchmarkApp.start(
+                // Keep password hashing from dominating the registerAccount measurement.
+                "--socialmedia.security.password-iterations=1000",
+                "--spring.jpa.properties.socialmedia.id.account_seq.increment_size=" + incrementSize,
+                "--spring.jpa.properties.socialmedia.id.message_seq.increment_size=" + incrementSize);
+        // Moves the sequences clear of the data.sql rows (IDs 9996-9999) so long runs cannot collide with them.
+        BenchmarkApp.seed(app, 0, 0);
+        accountService = app.getBean(AccountService.class);
+        messageService = app.getBean(MessageService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApp() {
+        BenchmarkApp.stop(app);
+    }
+
+    @Benchmark
+    public Account registerAccount() throws DuplicateUsernameException, BadRequestException {
+        return accountService.registerAccount(new Account("bench" + usernameCounter.incrementAndGet(), "password"));
+    }
+
+    @Benchmark
+    public Message addMessage() throws BadRequestException, ServiceUnavailableException {
+        return messageService.addMessage(new Message(9999, "benchmark message", 1669947792L));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public List<MessageBatchItem> addMessageBatch() throws BadRequestException {
+        List<Message> batch = new ArrayList<>(BATCH_SIZE);
+        for(int i = 0; i < BATCH_SIZE; i++) {
+            batch.add(new Message(9999, "benchmark message", 1669947792L));
+        }
+        return messageService.addMessages(batch);
+    }
+}
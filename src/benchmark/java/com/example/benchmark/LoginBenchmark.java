@@ -0,0 +1,73 @@
+package com.example.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.entity.Account;
+import com.example.exception.BadRequestException;
+import com.example.exception.DuplicateUsernameException;
+import com.example.exception.UnauthorizedException;
+import com.example.service.AccountService;
+
+/**
+ * Login throughput of AccountService.verifyLogin against the PBKDF2 work factor.
+ * Run with -t to see how throughput scales with concurrent logins, e.g. -t 4.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class LoginBenchmark {
+    private static final String USERNAME = "benchmark-login";
+    private static final String PASSWORD = "benchmark-password";
+
+    @Param({"10000", "100000", "310000"})
+    public int passwordIterations;
+
+    private ConfigurableApplicationContext app;
+    private AccountService accountService;
+
+    @Setup(Level.Trial)
+    public void startApp() throws DuplicateUsernameException, BadRequestException {
+        app = BenchmarkApp.start(
+                "--socialmedia.security.password-iterations=" + passwordIterations);
+        accountService = app.getBean(AccountService.class);
+        accountService.registerAccount(new Account(USERNAME, PASSWORD));
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApp() {
+        BenchmarkApp.stop(app);
+    }
+
+    @Benchmark
+    public Account verifyLogin() throws UnauthorizedException {
+        return accountService.verifyLogin(new Account(USERNAME, PASSWORD));
+    }
+
+    @Benchmark
+    public boolean verifyLoginWrongPassword() {
+        try {
+            accountService.verifyLogin(new Account(USERNAME, "wrong-password"));
+            return true;
+        } catch(UnauthorizedException ex) {
+            return false;
+        }
+    }
+}
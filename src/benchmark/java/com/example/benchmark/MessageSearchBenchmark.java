@@ -0,0 +1,93 @@
+package com.example.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.dto.MessageView;
+import com.example.exception.BadRequestException;
+import com.example.exception.ServiceUnavailableException;
+import com.example.service.MessageService;
+
+/**
+ * Keyword search through MessageService (the in-memory inverted index, then a lookup of the matching rows by ID)
+ * versus the query it replaces: one LIKE '%word%' condition per word, which has to scan every message.
+ *
+ * Seeded messages read "seeded message j from useri", so "user7" matches one account's messages and
+ * "message 42" one message per account. LIKE also matches "user7" inside "user70"; the index does not.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class MessageSearchBenchmark {
+    private static final int LIMIT = 50;
+
+    @Param({"1000"})
+    public int seedAccounts;
+
+    @Param({"100"})
+    public int messagesPerAccount;
+
+    @Param({"user7", "message 42"})
+    public String query;
+
+    private ConfigurableApplicationContext app;
+    private MessageService messageService;
+    private JdbcTemplate jdbcTemplate;
+    private String likeSql;
+    private Object[] likeArgs;
+
+    @Setup(Level.Trial)
+    public void startApp() {
+        app = BenchmarkApp.start();
+        BenchmarkApp.seed(app, seedAccounts, messagesPerAccount);
+        messageService = app.getBean(MessageService.class);
+        jdbcTemplate = app.getBean(JdbcTemplate.class);
+
+        List<String> conditions = new ArrayList<>();
+        List<Object> args = new ArrayList<>();
+        for(String word : query.toLowerCase(Locale.ROOT).split(" ")) {
+            conditions.add("LOWER(messageText) LIKE ?");
+            args.add("%" + word + "%");
+        }
+        likeSql = "SELECT messageId, postedBy, messageText, timePostedEpoch FROM message WHERE "
+                + String.join(" AND ", conditions) + " ORDER BY timePostedEpoch DESC, messageId DESC LIMIT " + LIMIT;
+        likeArgs = args.toArray();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApp() {
+        BenchmarkApp.stop(app);
+    }
+
+    @Benchmark
+    public List<MessageView> invertedIndex() throws BadRequestException, ServiceUnavailableException {
+        return messageService.searchMessages(query, LIMIT);
+    }
+
+    @Benchmark
+    public List<MessageView> likeScan() {
+        return jdbcTemplate.query(likeSql, (row, rowNum) -> new MessageView(row.getInt(1), row.getInt(2),
+                row.getString(3), row.getLong(4)), likeArgs);
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.benchmark;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.dto.MessageView;
+import com.example.entity.Message;
+import com.example.exception.BadRequestException;
+import com.example.exception.ServiceUnavailableException;
+import com.example.service.MessageService;
+
+/**
+ * Throughput and latency distribution of the MessageService hot paths against a seeded database.
+ * Change the data set size with e.g. -p seedAccounts=10000 -p messagesPerAccount=100.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class MessageServiceBenchmark {
+    @Param({"1000"})
+    public int seedAccounts;
+
+    @Param({"100"})
+    public int messagesPerAccount;
+
+    private ConfigurableApplicationContext app;
+    private MessageService messageService;
+
+    /**
+     * Per-thread random source with a fixed seed, so every run touches the same sequence of rows.
+     */
+    @State(Scope.Thread)
+    public static class Picker {
+        private final SplittableRandom random = new SplittableRandom(42);
+
+        int account(MessageServiceBenchmark benchmark) {
+            return BenchmarkApp.FIRST_SEEDED_ID + random.nextInt(benchmark.seedAccounts);
+        }
+
+        int message(MessageServiceBenchmark benchmark) {
+            return BenchmarkApp.FIRST_SEEDED_ID + random.nextInt(benchmark.seedAccounts * benchmark.messagesPerAccount);
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void startApp() {
+        app = BenchmarkApp.start();
+        BenchmarkApp.seed(app, seedAccounts, messagesPerAccount);
+        messageService = app.getBean(MessageService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApp() {
+        BenchmarkApp.stop(app);
+    }
+
+    @Benchmark
+    public Message addMessage(Picker picker) throws BadRequestException, ServiceUnavailableException {
+        return messageService.addMessage(new Message(picker.account(this), "benchmark message", BenchmarkApp.SEEDED_EPOCH));
+    }
+
+    @Benchmark
+    public Message getMessage(Picker picker) {
+        return messageService.getMessage(picker.message(this));
+    }
+
+    @Benchmark
+    public List<MessageView> getAllMessagesByAccount(Picker picker) {
+        return messageService.getAllMessagesByAccount(picker.account(this));
+    }
+
+    @Benchmark
+    public int updateMessageText(Picker picker) throws BadRequestException {
+        return messageService.updateMessageText("benchmark update", picker.message(this));
+    }
+}
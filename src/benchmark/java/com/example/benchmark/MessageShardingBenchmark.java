@@ -0,0 +1,95 @@
+package com.example.benchmark;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.dto.MessagePage;
+import com.example.dto.MessageView;
+import com.example.entity.Message;
+import com.example.exception.BadRequestException;
+import com.example.exception.ServiceUnavailableException;
+import com.example.service.MessageService;
+
+/**
+ * Message reads and writes with the table in one database (shards = 0) and split across several.
+ *
+ * addMessage and getAllMessagesByAccount touch one shard each; getMessagesPage reads the first page of /messages/page,
+ * which queries every shard and merges. Run with -t to see how writes from several threads spread over the shards;
+ * on a machine with few cores the extra databases mostly add scheduling, not capacity.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Threads(4)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class MessageShardingBenchmark {
+    @Param({"0", "4"})
+    public int shards;
+
+    @Param({"1000"})
+    public int seedAccounts;
+
+    @Param({"100"})
+    public int messagesPerAccount;
+
+    private ConfigurableApplicationContext app;
+    private MessageService messageService;
+
+    /**
+     * Per-thread random source with a fixed seed, so every run touches the same sequence of accounts.
+     */
+    @State(Scope.Thread)
+    public static class Picker {
+        private final SplittableRandom random = new SplittableRandom(42);
+
+        int account(MessageShardingBenchmark benchmark) {
+            return BenchmarkApp.FIRST_SEEDED_ID + random.nextInt(benchmark.seedAccounts);
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void startApp() {
+        app = shards == 0 ? BenchmarkApp.start() : BenchmarkApp.start("--socialmedia.messages.shards=" + shards);
+        BenchmarkApp.seed(app, seedAccounts, messagesPerAccount);
+        messageService = app.getBean(MessageService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApp() {
+        BenchmarkApp.stop(app);
+    }
+
+    @Benchmark
+    public Message addMessage(Picker picker) throws BadRequestException, ServiceUnavailableException {
+        return messageService.addMessage(new Message(picker.account(this), "benchmark message", BenchmarkApp.SEEDED_EPOCH));
+    }
+
+    @Benchmark
+    public List<MessageView> getAllMessagesByAccount(Picker picker) {
+        return messageService.getAllMessagesByAccount(picker.account(this));
+    }
+
+    @Benchmark
+    public MessagePage getMessagesPage() throws BadRequestException {
+        return messageService.getMessagesPage(null, 50);
+    }
+}
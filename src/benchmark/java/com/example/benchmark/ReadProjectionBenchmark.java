@@ -0,0 +1,111 @@
+package com.example.benchmark;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.repository.MessageRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * The list endpoints' database and serialization work, loading managed Message entities in a read-write
+ * transaction (as they used to) versus MessageView projections in a read-only one (as they do now).
+ *
+ * Each operation serializes the list to JSON bytes as the controller would. Run with -prof gc to compare
+ * gc.alloc.rate.norm, the bytes allocated per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class ReadProjectionBenchmark {
+    @Param({"100"})
+    public int seedAccounts;
+
+    @Param({"100"})
+    public int messagesPerAccount;
+
+    private ConfigurableApplicationContext app;
+    private MessageRepository messageRepository;
+    private ObjectMapper objectMapper;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    /**
+     * Per-thread random source with a fixed seed, so every run reads the same sequence of accounts.
+     */
+    @State(Scope.Thread)
+    public static class Picker {
+        private final SplittableRandom random = new SplittableRandom(42);
+
+        int account(ReadProjectionBenchmark benchmark) {
+            return BenchmarkApp.FIRST_SEEDED_ID + random.nextInt(benchmark.seedAccounts);
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void startApp() {
+        app = BenchmarkApp.start();
+        BenchmarkApp.seed(app, seedAccounts, messagesPerAccount);
+        messageRepository = app.getBean(MessageRepository.class);
+        objectMapper = app.getBean(ObjectMapper.class);
+        PlatformTransactionManager transactionManager = app.getBean(PlatformTransactionManager.class);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApp() {
+        BenchmarkApp.stop(app);
+    }
+
+    @Benchmark
+    public byte[] byAccountEntities(Picker picker) {
+        int accountId = picker.account(this);
+        return readWrite.execute(status -> json(messageRepository.findMessagesByPostedBy(accountId)));
+    }
+
+    @Benchmark
+    public byte[] byAccountViews(Picker picker) {
+        int accountId = picker.account(this);
+        return readOnly.execute(status -> json(messageRepository.findViewsByPostedBy(accountId)));
+    }
+
+    @Benchmark
+    public byte[] allEntities() {
+        return readWrite.execute(status -> json(messageRepository.findAll()));
+    }
+
+    @Benchmark
+    public byte[] allViews() {
+        return readOnly.execute(status -> json(messageRepository.findAllViews()));
+    }
+
+    private byte[] json(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch(JsonProcessingException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.dto.MessageView;
+import com.example.entity.Message;
+import com.example.exception.BadRequestException;
+import com.example.exception.ServiceUnavailableException;
+import com.example.repository.MessageRepository;
+import com.example.service.MessageService;
+
+/**
+ * Reads and writes against the default in-memory database and the file profile's MVStore.
+ *
+ * storage is mem, file (the profile's default 500 ms write delay) or file-sync (write delay 0, so each commit is
+ * written out before it returns). getMessage goes to the repository, bypassing the message cache. Set
+ * -p cacheSizeKb below the store's size to measure reads that miss H2's page cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class StorageModeBenchmark {
+    @Param({"mem", "file", "file-sync"})
+    public String storage;
+
+    @Param({"65536"})
+    public int cacheSizeKb;
+
+    @Param({"1000"})
+    public int seedAccounts;
+
+    @Param({"100"})
+    public int messagesPerAccount;
+
+    private Path directory;
+    private ConfigurableApplicationContext app;
+    private MessageService messageService;
+    private MessageRepository messageRepository;
+
+    /**
+     * Per-thread random source with a fixed seed, so every run touches the same sequence of rows.
+     */
+    @State(Scope.Thread)
+    public static class Picker {
+        private final SplittableRandom random = new SplittableRandom(42);
+
+        int account(StorageModeBenchmark benchmark) {
+            return BenchmarkApp.FIRST_SEEDED_ID + random.nextInt(benchmark.seedAccounts);
+        }
+
+        int message(StorageModeBenchmark benchmark) {
+            return BenchmarkApp.FIRST_SEEDED_ID + random.nextInt(benchmark.seedAccounts * benchmark.messagesPerAccount);
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void startApp() throws IOException {
+        if(storage.equals("mem")) {
+            app = BenchmarkApp.start();
+        } else {
+            directory = Files.createTempDirectory("storage-benchmark");
+            app = BenchmarkApp.start("--spring.profiles.active=file",
+                    "--socialmedia.storage.path=" + directory.resolve("socialmedia").toAbsolutePath(),
+                    "--socialmedia.storage.cache-size-kb=" + cacheSizeKb,
+                    "--socialmedia.storage.write-delay-ms=" + (storage.equals("file-sync") ? 0 : 500));
+        }
+        BenchmarkApp.seed(app, seedAccounts, messagesPerAccount);
+        messageService = app.getBean(MessageService.class);
+        messageRepository = app.getBean(MessageRepository.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApp() throws IOException {
+        BenchmarkApp.stop(app);
+        if(directory != null) {
+            try(Stream<Path> files = Files.walk(directory)) {
+                for(Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public Message addMessage(Picker picker) throws BadRequestException, ServiceUnavailableException {
+        return messageService.addMessage(new Message(picker.account(this), "benchmark message", BenchmarkApp.SEEDED_EPOCH));
+    }
+
+    @Benchmark
+    public Message getMessage(Picker picker) {
+        return messageRepository.findById(picker.message(this)).orElse(null);
+    }
+
+    @Benchmark
+    public List<MessageView> getAllMessagesByAccount(Picker picker) {
+        return messageService.getAllMessagesByAccount(picker.account(this));
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.dto.MessagePage;
+import com.example.entity.Message;
+import com.example.exception.BadRequestException;
+import com.example.repository.MessageRepository;
+import com.example.service.MessageService;
+import com.example.service.TimelineService;
+
+/**
+ * The first page of a home timeline, read from the precomputed feed (TimelineService) versus the pull-on-read
+ * query it replaces, which joins the reader's follows to the message table and sorts every followed message.
+ *
+ * Every seeded account follows the next followsPerAccount accounts. All feeds are built during setup, so feed
+ * measures steady-state reads rather than the one-off load of a cold feed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class TimelineBenchmark {
+    private static final int PAGE = MessageService.DEFAULT_PAGE_SIZE;
+
+    @Param({"1000"})
+    public int seedAccounts;
+
+    @Param({"50"})
+    public int messagesPerAccount;
+
+    @Param({"100"})
+    public int followsPerAccount;
+
+    private ConfigurableApplicationContext app;
+    private TimelineService timelineService;
+    private MessageRepository messageRepository;
+    private TransactionTemplate readOnly;
+
+    /**
+     * Per-thread random source with a fixed seed, so every run reads the same sequence of timelines.
+     */
+    @State(Scope.Thread)
+    public static class Picker {
+        private final SplittableRandom random = new SplittableRandom(42);
+
+        int account(TimelineBenchmark benchmark) {
+            return BenchmarkApp.FIRST_SEEDED_ID + random.nextInt(benchmark.seedAccounts);
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void startApp() throws BadRequestException {
+        app = BenchmarkApp.start();
+        BenchmarkApp.seed(app, seedAccounts, messagesPerAccount);
+        List<Object[]> follows = new ArrayList<>();
+        for(int i = 0; i < seedAccounts; i++) {
+            for(int j = 1; j <= followsPerAccount; j++) {
+                follows.add(new Object[] {BenchmarkApp.FIRST_SEEDED_ID + i, BenchmarkApp.FIRST_SEEDED_ID + (i + j) % seedAccounts});
+            }
+        }
+        app.getBean(JdbcTemplate.class).batchUpdate("insert into follow (followerId, followedId) values (?, ?)", follows);
+        timelineService = app.getBean(TimelineService.class);
+        messageRepository = app.getBean(MessageRepository.class);
+        readOnly = new TransactionTemplate(app.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+        for(int i = 0; i < seedAccounts; i++) {
+            timelineService.getTimeline(BenchmarkApp.FIRST_SEEDED_ID + i, null, 1);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApp() {
+        BenchmarkApp.stop(app);
+    }
+
+    @Benchmark
+    public MessagePage feed(Picker picker) throws BadRequestException {
+        return timelineService.getTimeline(picker.account(this), null, PAGE);
+    }
+
+    @Benchmark
+    public List<Message> join(Picker picker) {
+        int accountId = picker.account(this);
+        return readOnly.execute(status -> messageRepository.findTimelineBefore(accountId, Long.MAX_VALUE, Integer.MAX_VALUE,
+                PageRequest.of(0, PAGE + 1)));
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.entity.Account;
+import com.example.entity.Message;
+import com.example.exception.BadRequestException;
+import com.example.exception.DuplicateUsernameException;
+import com.example.exception.ServiceUnavailableException;
+import com.example.service.AccountService;
+import com.example.service.MessageService;
+
+/**
+ * Cost of rejecting invalid input.
+ *
+ * throwStackful/throwStackless throw and catch an exception from stackDepth frames down (a Spring MVC request
+ * reaches the services around 100 frames deep), with and without a stack trace, isolating what the stackless
+ * exceptions save. The service benchmarks measure the rejection paths as the controller calls them; invalid text
+ * is rejected before MessageService.updateMessageText opens a transaction.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+public class ValidationFailureBenchmark {
+    private static final String TOO_LONG_TEXT = "x".repeat(256);
+
+    /**
+     * The exception as it was before: the JVM walks and records the whole stack when it is created.
+     */
+    static class StackfulBadRequestException extends Exception {
+        StackfulBadRequestException(String message) {
+            super(message);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Stack {
+        @Param({"10", "100"})
+        public int stackDepth;
+    }
+
+    @State(Scope.Benchmark)
+    public static class App {
+        private ConfigurableApplicationContext app;
+        MessageService messageService;
+        AccountService accountService;
+
+        @Setup(Level.Trial)
+        public void startApp() {
+            app = BenchmarkApp.start();
+            messageService = app.getBean(MessageService.class);
+            accountService = app.getBean(AccountService.class);
+        }
+
+        @TearDown(Level.Trial)
+        public void stopApp() {
+            BenchmarkApp.stop(app);
+        }
+    }
+
+    @Benchmark
+    public String throwStackful(Stack stack) {
+        try {
+            return failAt(stack.stackDepth, true);
+        } catch(Exception ex) {
+            return ex.getMessage();
+        }
+    }
+
+    @Benchmark
+    public String throwStackless(Stack stack) {
+        try {
+            return failAt(stack.stackDepth, false);
+        } catch(Exception ex) {
+            return ex.getMessage();
+        }
+    }
+
+    @Benchmark
+    public String addMessageBlankText(App app) {
+        try {
+            return app.messageService.addMessage(new Message(9999, "", 1669947792L)).getMessageText();
+        } catch(BadRequestException | ServiceUnavailableException ex) {
+            return ex.getMessage();
+        }
+    }
+
+    @Benchmark
+    public String updateMessageTextTooLong(App app) {
+        try {
+            return String.valueOf(app.messageService.updateMessageText(TOO_LONG_TEXT, 9999));
+        } catch(BadRequestException ex) {
+            return ex.getMessage();
+        }
+    }
+
+    @Benchmark
+    public String registerAccountDuplicate(App app) {
+        try {
+            return app.accountService.registerAccount(new Account("testuser1", "password")).getUsername();
+        } catch(DuplicateUsernameException | BadRequestException ex) {
+            return ex.getMessage();
+        }
+    }
+
+    private static String failAt(int depth, boolean stackful) throws Exception {
+        if(depth > 0) {
+            return failAt(depth - 1, stackful);
+        }
+        throw stackful ? new StackfulBadRequestException("Message text must not be blank.")
+                : new BadRequestException("Message text must not be blank.");
+    }
+}
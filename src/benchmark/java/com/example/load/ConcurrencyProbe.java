@@ -0,0 +1,181 @@
+package com.example.load;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.SocialMediaApp;
+import com.example.load.HttpLoadHarness.Operation;
+
+/**
+ * Finds the highest number of concurrent in-flight requests SocialMediaApp sustains, and what each one costs in memory,
+ * by stepping a closed-loop client through increasing concurrency levels against an in-process app.
+ *
+ * Clients are asynchronous (a handful of threads regardless of level), so the thread count and resident memory sampled
+ * during each step are dominated by the server. A level is sustained while fewer than 1% of requests fail and p99
+ * latency stays within the SLO. Memory per in-flight request is the growth in resident set size over the idle baseline,
+ * divided by the level.
+ *
+ * Options (all --key=value; anything else is passed through to SocialMediaApp):
+ *  --levels=50,100,200,...     Concurrency levels to step through. Default 50,100,200,400,800,1600.
+ *  --step=10s --warmup=3s      Measurement and warmup length at each level (s or ms suffix).
+ *  --slo=500ms                 p99 latency a level must stay within to count as sustained.
+ *  --mix=read:6,post:2,...     Traffic mix, as for HttpLoadHarness. Login is left out by default since it is CPU bound.
+ *
+ * Compare the Tomcat worker pool with virtual threads (Java 21+ runtime) by running it twice:
+ *  mvn -Pbenchmark test-compile exec:exec -Dbenchmark.main=com.example.load.ConcurrencyProbe
+ *  mvn -Pbenchmark test-compile exec:exec -Dbenchmark.main=com.example.load.ConcurrencyProbe -Dbenchmark.args="--socialmedia.threads.virtual=true"
+ */
+public class ConcurrencyProbe {
+    private static final long SAMPLE_INTERVAL_MILLIS = 100;
+    private static final Path PROC_STATUS = Paths.get("/proc/self/status");
+
+    private ConcurrencyProbe() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        List<String> appArgs = new ArrayList<>();
+        for(String arg : args) {
+            String key = arg.startsWith("--") && arg.contains("=") ? arg.substring(2, arg.indexOf('=')) : "";
+            switch(key) {
+                case "levels": case "step": case "warmup": case "slo": case "mix":
+                    options.put(key, arg.substring(arg.indexOf('=') + 1));
+                    break;
+                default:
+                    appArgs.add(arg);
+            }
+        }
+        String[] levels = options.getOrDefault("levels", "50,100,200,400,800,1600").split(",");
+        long stepNanos = HttpLoadHarness.parseDuration(options.getOrDefault("step", "10s"));
+        long warmupNanos = HttpLoadHarness.parseDuration(options.getOrDefault("warmup", "3s"));
+        long sloNanos = HttpLoadHarness.parseDuration(options.getOrDefault("slo", "500ms"));
+        Map<Operation, Integer> mix = HttpLoadHarness.parseMix(options.getOrDefault("mix", "read:6,post:2,page:2"));
+
+        appArgs.add(0, "--server.port=0");
+        appArgs.add(1, "--logging.level.root=WARN");
+        ConfigurableApplicationContext app = SpringApplication.run(SocialMediaApp.class, appArgs.toArray(new String[0]));
+        ExecutorService clientExecutor = Executors.newFixedThreadPool(4);
+        try {
+            String baseUrl = "http://localhost:" + app.getEnvironment().getProperty("local.server.port");
+            HttpLoadHarness harness = new HttpLoadHarness(HttpLoadHarness.newWebClient(clientExecutor), baseUrl, mix);
+            harness.prime();
+            boolean virtual = Boolean.parseBoolean(app.getEnvironment().getProperty("socialmedia.threads.virtual"));
+            System.out.printf("Request threads: %s, mix %s, SLO p99 <= %.0f ms%n",
+                    virtual ? "virtual" : "Tomcat pool of " + app.getEnvironment().getProperty("server.tomcat.threads.max", "200"),
+                    mix, sloNanos / 1e6);
+
+            System.gc();
+            Sample baseline = new Sample();
+            baseline.take();
+            System.out.printf("Idle: RSS %.1f MB, heap %.1f MB, %d live threads%n%n",
+                    baseline.rssBytes / 1e6, baseline.heapBytes / 1e6, baseline.threads);
+            System.out.printf("%-8s %10s %8s %10s %10s %10s %10s %9s %14s%n",
+                    "level", "req/s", "errors", "p50 ms", "p99 ms", "RSS MB", "heap MB", "threads", "KB/in-flight");
+
+            int maxSustained = 0;
+            boolean sustained = true;
+            for(String value : levels) {
+                int level = Integer.parseInt(value.trim());
+                runLevel(harness, level, warmupNanos, null);
+                harness.resetStatistics();
+                Sample sample = new Sample();
+                long start = System.nanoTime();
+                runLevel(harness, level, stepNanos, sample);
+                double seconds = (System.nanoTime() - start) / 1e9;
+
+                Histogram latency = harness.totalLatency();
+                long requests = latency.getTotalCount();
+                long errors = harness.totalErrors();
+                double kbPerRequest = (sample.rssBytes - baseline.rssBytes) / 1e3 / level;
+                System.out.printf("%-8d %10.1f %8d %10.2f %10.2f %10.1f %10.1f %9d %14.1f%n",
+                        level, requests / seconds, errors,
+                        latency.getValueAtPercentile(50) / 1e6, latency.getValueAtPercentile(99) / 1e6,
+                        sample.rssBytes / 1e6, sample.heapBytes / 1e6, sample.threads, kbPerRequest);
+                sustained &= requests > 0 && errors * 100 < requests && latency.getValueAtPercentile(99) <= sloNanos;
+                if(sustained) {
+                    maxSustained = level;
+                }
+            }
+            System.out.printf("%nMax sustained concurrency: %s%n", maxSustained > 0 ? maxSustained : "none of the levels");
+        } finally {
+            clientExecutor.shutdownNow();
+            SpringApplication.exit(app);
+        }
+    }
+
+    /**
+     *  Keeps exactly level requests in flight until the time is up: each completed request immediately issues the next.
+     *  Samples memory and threads every SAMPLE_INTERVAL_MILLIS when a sample is given.
+     */
+    private static void runLevel(HttpLoadHarness harness, int level, long durationNanos, Sample sample) throws InterruptedException, IOException {
+        long deadline = System.nanoTime() + durationNanos;
+        CountDownLatch finished = new CountDownLatch(level);
+        for(int i = 0; i < level; i++) {
+            sendUntil(harness, deadline, finished);
+        }
+        while(!finished.await(SAMPLE_INTERVAL_MILLIS, TimeUnit.MILLISECONDS)) {
+            if(sample != null && System.nanoTime() < deadline) {
+                sample.take();
+            }
+        }
+    }
+
+    private static void sendUntil(HttpLoadHarness harness, long deadline, CountDownLatch finished) {
+        if(System.nanoTime() >= deadline) {
+            finished.countDown();
+            return;
+        }
+        harness.sendAsync(harness.nextOperation()).whenComplete((ignored, ex) -> sendUntil(harness, deadline, finished));
+    }
+
+    /**
+     * Running averages of resident memory and heap use, and the peak live thread count.
+     */
+    private static final class Sample {
+        private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        private final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        private long samples;
+        private double rssBytes;
+        private double heapBytes;
+        private int threads;
+
+        void take() throws IOException {
+            samples++;
+            rssBytes += (residentSetBytes() - rssBytes) / samples;
+            heapBytes += (memory.getHeapMemoryUsage().getUsed() - heapBytes) / samples;
+            threads = Math.max(threads, threadBean.getThreadCount());
+        }
+
+        /**
+         *  Resident set size of this JVM from /proc (Linux). Platform thread stacks count here, not in the heap.
+         */
+        private static long residentSetBytes() throws IOException {
+            if(!Files.isReadable(PROC_STATUS)) {
+                return 0;
+            }
+            for(String line : Files.readAllLines(PROC_STATUS)) {
+                if(line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("[^0-9]", "")) * 1024;
+                }
+            }
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,352 @@
+package com.example.load;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.SocialMediaApp;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Drives SocialMediaController end to end over HTTP with a configurable mix of register/login/post/read/patch/delete
+ * traffic, and reports throughput and p50/p99/p999 latency per endpoint.
+ *
+ * Options (all --key=value; anything else is passed through to SocialMediaApp when the harness starts it):
+ *  --url=http://host:port      Target an already running app instead of starting one in-process.
+ *  --concurrency=N             Closed model: N workers each send the next request as soon as the last completes. Default 16.
+ *  --rate=R                    Open model: R requests/second at fixed intervals, regardless of response time.
+ *                              Latency is measured from each request's scheduled start, so queueing delay is included.
+ *  --duration=30s --warmup=5s  Measurement and warmup lengths (s or ms suffix).
+ *  --mix=read:50,post:20,...   Relative weights of register, login, post, read, page, patch, delete.
+ *
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Dbenchmark.main=com.example.load.HttpLoadHarness -Dbenchmark.args="--concurrency=32"
+ */
+public class HttpLoadHarness {
+    private static final long MAX_TRACKED_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private static final int RECENT_MESSAGE_SLOTS = 4096;
+    private static final int[] SEEDED_ACCOUNTS = {9999, 9998, 9997, 9996};
+
+    enum Operation {
+        REGISTER, LOGIN, POST, READ, PAGE, PATCH, DELETE
+    }
+
+    private final HttpClient webClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String baseUrl;
+    private final Operation[] weightedOperations;
+    private final Map<Operation, Histogram> latencies = new EnumMap<>(Operation.class);
+    private final Map<Operation, AtomicLong> errors = new EnumMap<>(Operation.class);
+    private final AtomicInteger registrations = new AtomicInteger();
+    private final AtomicIntegerArray recentMessageIds = new AtomicIntegerArray(RECENT_MESSAGE_SLOTS);
+    private final AtomicLong recentMessageCount = new AtomicLong();
+
+    HttpLoadHarness(HttpClient webClient, String baseUrl, Map<Operation, Integer> mix) {
+        this.webClient = webClient;
+        this.baseUrl = baseUrl;
+        List<Operation> weighted = new ArrayList<>();
+        mix.forEach((operation, weight) -> {
+            for(int i = 0; i < weight; i++) {
+                weighted.add(operation);
+            }
+        });
+        if(weighted.isEmpty()) {
+            throw new IllegalArgumentException("The traffic mix must give at least one operation a positive weight.");
+        }
+        this.weightedOperations = weighted.toArray(new Operation[0]);
+        resetStatistics();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        List<String> appArgs = new ArrayList<>();
+        for(String arg : args) {
+            String key = arg.startsWith("--") && arg.contains("=") ? arg.substring(2, arg.indexOf('=')) : "";
+            switch(key) {
+                case "url": case "concurrency": case "rate": case "duration": case "warmup": case "mix":
+                    options.put(key, arg.substring(arg.indexOf('=') + 1));
+                    break;
+                default:
+                    appArgs.add(arg);
+            }
+        }
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "16"));
+        double rate = Double.parseDouble(options.getOrDefault("rate", "0"));
+        long durationNanos = parseDuration(options.getOrDefault("duration", "30s"));
+        long warmupNanos = parseDuration(options.getOrDefault("warmup", "5s"));
+        Map<Operation, Integer> mix = parseMix(options.getOrDefault("mix", "register:2,login:8,post:20,read:40,page:15,patch:10,delete:5"));
+
+        ConfigurableApplicationContext app = null;
+        String baseUrl = options.get("url");
+        if(baseUrl == null) {
+            appArgs.add(0, "--server.port=0");
+            appArgs.add(1, "--logging.level.root=WARN");
+            app = SpringApplication.run(SocialMediaApp.class, appArgs.toArray(new String[0]));
+            baseUrl = "http://localhost:" + app.getEnvironment().getProperty("local.server.port");
+        }
+        ExecutorService clientExecutor = Executors.newCachedThreadPool();
+        try {
+            HttpLoadHarness harness = new HttpLoadHarness(newWebClient(clientExecutor), baseUrl, mix);
+            harness.prime();
+            System.out.printf("Target %s, mix %s, %s%n", baseUrl, mix,
+                    rate > 0 ? "open model at " + rate + " req/s" : "closed model with " + concurrency + " workers");
+
+            harness.run(concurrency, rate, warmupNanos);
+            harness.resetStatistics();
+            long start = System.nanoTime();
+            harness.run(concurrency, rate, durationNanos);
+            harness.report(System.nanoTime() - start);
+        } finally {
+            clientExecutor.shutdownNow();
+            if(app != null) {
+                SpringApplication.exit(app);
+            }
+        }
+    }
+
+    static HttpClient newWebClient(ExecutorService executor) {
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(executor)
+                .build();
+    }
+
+    /**
+     *  Posts a first set of messages so that read/patch/delete traffic has IDs to work on from the start.
+     */
+    void prime() throws IOException, InterruptedException {
+        for(int i = 0; i < 256; i++) {
+            send(Operation.POST);
+        }
+    }
+
+    /**
+     *  Generates load for the given time, in the closed model when rate is 0 and the open model otherwise.
+     */
+    void run(int concurrency, double rate, long durationNanos) throws InterruptedException {
+        long deadline = System.nanoTime() + durationNanos;
+        if(rate > 0) {
+            runOpen(rate, deadline);
+        } else {
+            runClosed(concurrency, deadline);
+        }
+    }
+
+    private void runClosed(int concurrency, long deadline) throws InterruptedException {
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        for(int i = 0; i < concurrency; i++) {
+            workers.execute(() -> {
+                while(System.nanoTime() < deadline) {
+                    Operation operation = nextOperation();
+                    long start = System.nanoTime();
+                    try {
+                        record(operation, start, send(operation));
+                    } catch(IOException ex) {
+                        record(operation, start, -1);
+                    } catch(InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            });
+        }
+        workers.shutdown();
+        workers.awaitTermination(deadline - System.nanoTime() + TimeUnit.MINUTES.toNanos(1), TimeUnit.NANOSECONDS);
+    }
+
+    private void runOpen(double rate, long deadline) throws InterruptedException {
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+        List<CompletableFuture<?>> inFlight = new ArrayList<>();
+        long intendedStart = System.nanoTime();
+        while(intendedStart < deadline) {
+            long wait = intendedStart - System.nanoTime();
+            if(wait > 0) {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            }
+            Operation operation = nextOperation();
+            long scheduled = intendedStart;
+            inFlight.add(webClient.sendAsync(request(operation), HttpResponse.BodyHandlers.ofString())
+                    .handle((response, ex) -> {
+                        record(operation, scheduled, ex == null ? handle(operation, response) : -1);
+                        return null;
+                    }));
+            intendedStart += intervalNanos;
+            inFlight.removeIf(CompletableFuture::isDone);
+        }
+        CompletableFuture.allOf(inFlight.toArray(new CompletableFuture[0])).join();
+    }
+
+    /**
+     *  Sends one request without blocking. Its latency and status are recorded when the response arrives.
+     */
+    CompletableFuture<Void> sendAsync(Operation operation) {
+        long start = System.nanoTime();
+        return webClient.sendAsync(request(operation), HttpResponse.BodyHandlers.ofString())
+                .handle((response, ex) -> {
+                    record(operation, start, ex == null ? handle(operation, response) : -1);
+                    return null;
+                });
+    }
+
+    Operation nextOperation() {
+        return weightedOperations[ThreadLocalRandom.current().nextInt(weightedOperations.length)];
+    }
+
+    private int send(Operation operation) throws IOException, InterruptedException {
+        return handle(operation, webClient.send(request(operation), HttpResponse.BodyHandlers.ofString()));
+    }
+
+    private HttpRequest request(Operation operation) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int account = SEEDED_ACCOUNTS[random.nextInt(SEEDED_ACCOUNTS.length)];
+        switch(operation) {
+            case REGISTER:
+                return post("/register", "{\"username\":\"load" + registrations.incrementAndGet() + "\",\"password\":\"password\"}");
+            case LOGIN:
+                return post("/login", "{\"username\":\"testuser1\",\"password\":\"password\"}");
+            case POST:
+                return post("/messages", "{\"postedBy\":" + account + ",\"messageText\":\"load test message\",\"timePostedEpoch\":"
+                        + System.currentTimeMillis() / 1000 + "}");
+            case READ:
+                return HttpRequest.newBuilder().uri(uri("/messages/" + recentMessageId())).build();
+            case PAGE:
+                return HttpRequest.newBuilder().uri(uri("/accounts/" + account + "/messages/page?limit=20")).build();
+            case PATCH:
+                return HttpRequest.newBuilder()
+                        .uri(uri("/messages/" + recentMessageId()))
+                        .method("PATCH", HttpRequest.BodyPublishers.ofString("{\"messageText\":\"load test edit\"}"))
+                        .header("Content-Type", "application/json")
+                        .build();
+            case DELETE:
+                return HttpRequest.newBuilder().uri(uri("/messages/" + recentMessageId())).DELETE().build();
+            default:
+                throw new IllegalArgumentException("Unknown operation " + operation);
+        }
+    }
+
+    /**
+     *  Remembers the IDs of created messages, and returns the status code to record.
+     *  A PATCH that lost a race with a DELETE (400) is expected traffic, not an error.
+     */
+    private int handle(Operation operation, HttpResponse<String> response) {
+        int status = response.statusCode();
+        if(operation == Operation.POST && status == 200) {
+            int messageId;
+            try {
+                messageId = objectMapper.readTree(response.body()).get("messageId").asInt();
+            } catch(IOException ex) {
+                return -1;
+            }
+            recentMessageIds.set((int) (recentMessageCount.getAndIncrement() % RECENT_MESSAGE_SLOTS), messageId);
+        } else if(operation == Operation.PATCH && status == 400) {
+            return 200;
+        }
+        return status;
+    }
+
+    private void record(Operation operation, long startNanos, int status) {
+        latencies.get(operation).recordValue(Math.min(System.nanoTime() - startNanos, MAX_TRACKED_NANOS));
+        if(status < 200 || status >= 300) {
+            errors.get(operation).incrementAndGet();
+        }
+    }
+
+    private int recentMessageId() {
+        long count = Math.min(recentMessageCount.get(), RECENT_MESSAGE_SLOTS);
+        return count == 0 ? 9999 : recentMessageIds.get(ThreadLocalRandom.current().nextInt((int) count));
+    }
+
+    private HttpRequest post(String path, String json) {
+        return HttpRequest.newBuilder()
+                .uri(uri(path))
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .header("Content-Type", "application/json")
+                .build();
+    }
+
+    private URI uri(String path) {
+        return URI.create(baseUrl + path);
+    }
+
+    void resetStatistics() {
+        for(Operation operation : Operation.values()) {
+            latencies.put(operation, new ConcurrentHistogram(MAX_TRACKED_NANOS, 3));
+            errors.put(operation, new AtomicLong());
+        }
+    }
+
+    /**
+     *  @return The latencies recorded since the last reset, across all operations.
+     */
+    Histogram totalLatency() {
+        Histogram total = new Histogram(MAX_TRACKED_NANOS, 3);
+        latencies.values().forEach(total::add);
+        return total;
+    }
+
+    long totalErrors() {
+        return errors.values().stream().mapToLong(AtomicLong::get).sum();
+    }
+
+    void report(long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        System.out.printf("%n%-9s %10s %8s %12s %10s %10s %10s %10s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        long total = 0;
+        for(Operation operation : Operation.values()) {
+            Histogram histogram = latencies.get(operation);
+            long count = histogram.getTotalCount();
+            if(count == 0) {
+                continue;
+            }
+            total += count;
+            System.out.printf("%-9s %10d %8d %12.1f %10.2f %10.2f %10.2f %10.2f%n",
+                    operation.name().toLowerCase(), count, errors.get(operation).get(), count / seconds,
+                    millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(99)),
+                    millis(histogram.getValueAtPercentile(99.9)), millis(histogram.getMaxValue()));
+        }
+        System.out.printf("%-9s %10d %8s %12.1f%n", "total", total, "", total / seconds);
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    static long parseDuration(String value) {
+        if(value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2))).toNanos();
+        } else if(value.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(value.substring(0, value.length() - 1))).toNanos();
+        }
+        return Duration.ofSeconds(Long.parseLong(value)).toNanos();
+    }
+
+    static Map<Operation, Integer> parseMix(String value) {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for(String entry : value.split(",")) {
+            String[] parts = entry.split(":");
+            mix.put(Operation.valueOf(parts[0].trim().toUpperCase()), Integer.parseInt(parts[1].trim()));
+        }
+        return mix;
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Enables the in-process caches configured under spring.cache.* in application.properties.
+ *
+ * The message cache is not driven by @Cacheable and @CacheEvict: MessageService goes through MessageCache, which
+ * evicts after the write has committed and refuses to store a row loaded by a read that overlapped the write, so
+ * an edited or deleted message is never served from the cache once its write has committed.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    /**
+     * Messages by messageId, read and evicted through MessageCache.
+     */
+    public static final String MESSAGE_CACHE = "messages";
+}
@@ -0,0 +1,30 @@
+package com.example.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Provides the bounded executor that runs password hashing for logins and registrations.
+ *
+ * Hashing is deliberately slow, so it is kept off the Tomcat request threads: a login or registration storm can fill
+ * this pool and its queue, after which further requests are rejected with 503 instead of starving other endpoints.
+ */
+@Configuration
+public class CredentialExecutorConfig {
+    public static final String CREDENTIAL_EXECUTOR = "credentialExecutor";
+
+    @Bean(name = CREDENTIAL_EXECUTOR)
+    public ThreadPoolTaskExecutor credentialExecutor(
+            @Value("${socialmedia.security.credential-threads:0}") int threads,
+            @Value("${socialmedia.security.credential-queue-capacity:1000}") int queueCapacity) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("credential-");
+        return executor;
+    }
+}
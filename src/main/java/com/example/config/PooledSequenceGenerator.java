@@ -0,0 +1,33 @@
+package com.example.config;
+
+import java.util.Map;
+import java.util.Properties;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+/**
+ * A sequence-based ID generator whose allocation size can be overridden per sequence from configuration.
+ *
+ * Entities declare their sequence name, default increment size and optimizer through @GenericGenerator parameters.
+ * Setting spring.jpa.properties.socialmedia.id.&lt;sequence_name&gt;.increment_size replaces the default, so
+ * the number of IDs handed out from memory per sequence round trip can be tuned without recompiling.
+ * The database sequence must be created with the same increment (Hibernate's schema generation does this).
+ */
+public class PooledSequenceGenerator extends SequenceStyleGenerator {
+    public static final String SETTING_PREFIX = "socialmedia.id.";
+
+    @Override
+    public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) throws MappingException {
+        String sequenceName = params.getProperty(SEQUENCE_PARAM);
+        Map<?, ?> settings = serviceRegistry.getService(ConfigurationService.class).getSettings();
+        Object incrementSize = settings.get(SETTING_PREFIX + sequenceName + "." + INCREMENT_PARAM);
+        if(incrementSize != null) {
+            params.setProperty(INCREMENT_PARAM, incrementSize.toString());
+        }
+        super.configure(type, params, serviceRegistry);
+    }
+}
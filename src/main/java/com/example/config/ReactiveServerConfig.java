@@ -0,0 +1,22 @@
+package com.example.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Runs the reactive stack (spring.main.web-application-type=reactive) on Reactor Netty.
+ *
+ * Tomcat is also on the classpath for the servlet stack, and Spring Boot would otherwise prefer it. Netty serves
+ * every connection from a small, fixed set of event-loop threads, which is the point of the reactive variant.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveServerConfig {
+
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+}
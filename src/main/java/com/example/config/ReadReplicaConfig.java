@@ -0,0 +1,70 @@
+package com.example.config;
+
+import java.time.Duration;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Adds a read replica, enabled by setting socialmedia.datasource.replica.url.
+ *
+ * The primary pool is built from spring.datasource.* as usual and the replica pool from
+ * socialmedia.datasource.replica.* (its credentials default to the primary's). The application's DataSource then
+ * routes read-only transactions to the replica and all other work to the primary (see ReadWriteRoutingDataSource),
+ * so reads are served by their own pool instead of queueing for the connections writers hold. Replicating the
+ * data itself is left to the databases.
+ */
+@Configuration
+@ConditionalOnProperty(name = "socialmedia.datasource.replica.url")
+public class ReadReplicaConfig {
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("socialmedia.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(DataSourceProperties properties,
+            @Value("${socialmedia.datasource.replica.url}") String url,
+            @Value("${socialmedia.datasource.replica.username:${spring.datasource.username:}}") String username,
+            @Value("${socialmedia.datasource.replica.password:${spring.datasource.password:}}") String password) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setDriverClassName(properties.determineDriverClassName());
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername(username);
+        dataSource.setPassword(password);
+        dataSource.setReadOnly(true);
+        dataSource.setPoolName("replica");
+        return dataSource;
+    }
+
+    /**
+     *  @param  maxLag  How long reads stay on the primary after a write, e.g. 1s or 200ms.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, HikariDataSource replicaDataSource,
+            @Value("${socialmedia.datasource.replica.max-lag:1s}") Duration maxLag) {
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(maxLag);
+        routing.setTargetDataSources(Map.of(
+                ReadWriteRoutingDataSource.Route.PRIMARY, primaryDataSource,
+                ReadWriteRoutingDataSource.Route.REPLICA, replicaDataSource));
+        routing.setDefaultTargetDataSource(primaryDataSource);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+}
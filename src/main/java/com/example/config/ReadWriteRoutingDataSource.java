@@ -0,0 +1,59 @@
+package com.example.config;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Sends connections for read-only transactions to the replica and everything else to the primary.
+ *
+ * The replica trails the primary, so a read that follows a write could miss it. As a guard, reads are kept on the
+ * primary until maxLag has passed since the last write committed. The guard is global rather than per client: it
+ * is simple and always safe, but under a steady stream of writes it keeps reads on the primary, so maxLag should be
+ * set to the replica's real worst-case lag and no higher.
+ *
+ * The route is chosen when a physical connection is fetched, so the data source must be wrapped in a
+ * LazyConnectionDataSourceProxy: the transaction's read-only flag is only known once it has begun.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+    public enum Route {
+        PRIMARY,
+        REPLICA
+    }
+
+    private final long maxLagNanos;
+    private final AtomicLong lastWriteNanos;
+
+    /**
+     *  @param  maxLag  How long after a write reads stay on the primary.
+     */
+    public ReadWriteRoutingDataSource(Duration maxLag) {
+        this.maxLagNanos = maxLag.toNanos();
+        this.lastWriteNanos = new AtomicLong(System.nanoTime() - maxLagNanos);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if(TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return System.nanoTime() - lastWriteNanos.get() >= maxLagNanos ? Route.REPLICA : Route.PRIMARY;
+        }
+        // Outside a transaction the write commits as soon as it runs; inside one, the window restarts at commit.
+        recordWrite();
+        if(TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    recordWrite();
+                }
+            });
+        }
+        return Route.PRIMARY;
+    }
+
+    private void recordWrite() {
+        lastWriteNanos.set(System.nanoTime());
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.config;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Opt-in virtual-thread request execution, enabled with socialmedia.threads.virtual=true.
+ *
+ * Tomcat hands every request to a new virtual thread instead of its bounded worker pool, so the controller,
+ * the services and their blocking repository calls no longer hold a platform thread while they wait on JDBC.
+ * Concurrency is then capped by the Hikari pool (spring.datasource.hikari.maximum-pool-size) rather than
+ * server.tomcat.threads.max. Password hashing stays on the bounded credential executor, since it is CPU bound.
+ *
+ * Virtual threads need a Java 21+ runtime; the executor is looked up reflectively so the build can keep
+ * targeting Java 11, and startup fails if the mode is enabled on an older runtime.
+ */
+@Configuration
+@ConditionalOnProperty(name = "socialmedia.threads.virtual", havingValue = "true")
+public class VirtualThreadConfig {
+    public static final String VIRTUAL_THREAD_EXECUTOR = "virtualThreadExecutor";
+
+    @Bean(name = VIRTUAL_THREAD_EXECUTOR, destroyMethod = "shutdown")
+    public ExecutorService virtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch(NoSuchMethodException | IllegalAccessException ex) {
+            throw new IllegalStateException("socialmedia.threads.virtual=true requires a Java 21+ runtime, but this is Java "
+                    + System.getProperty("java.specification.version") + ".", ex);
+        } catch(InvocationTargetException ex) {
+            throw new IllegalStateException("Virtual threads are not available on this runtime.", ex.getCause());
+        }
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        ExecutorService executor = virtualThreadExecutor();
+        return protocolHandler -> protocolHandler.setExecutor(executor);
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.controller;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.entity.Message;
+import com.example.exception.BadRequestException;
+import com.example.service.ReactiveMessageService;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * The message endpoints of SocialMediaController on the reactive stack (WebFlux on Netty), with the same request
+ * and response contracts. It replaces SocialMediaController when the app is started with
+ * spring.main.web-application-type=reactive.
+ *
+ * The list endpoints stream: a client that accepts application/x-ndjson receives one message per line as rows are
+ * read, and rows are only fetched from the database as fast as the client consumes them.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveMessageController {
+    private final ReactiveMessageService messageService;
+
+    public ReactiveMessageController(ReactiveMessageService messageService) {
+        this.messageService = messageService;
+    }
+
+    /**
+     *  Requirement #3: Process the creation of new messages.
+     *  @param  message The body of the request representing the message to be created, not including messageId.
+     *  @return The created message, including its generated messageId, or 400 if it is invalid.
+     */
+    @PostMapping("/messages")
+    public Mono<ResponseEntity<Message>> createMessage(@RequestBody Message message) {
+        return messageService.addMessage(message)
+                .map(createdMessage -> ResponseEntity.status(HttpStatus.OK).body(createdMessage));
+    }
+
+    /**
+     *  Requirement #4: Retrieve all messages, as a JSON array or, with Accept: application/x-ndjson, as a stream.
+     */
+    @GetMapping(value = "/messages", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<Message> retrieveAllMessages() {
+        return messageService.getAllMessages();
+    }
+
+    /**
+     *  Requirement #5: Retrieve a message by its ID.
+     *  @return The matching message. Body is empty if there is no matching message.
+     */
+    @GetMapping("/messages/{messageId}")
+    public Mono<ResponseEntity<Message>> retrieveMessageByMessageId(@PathVariable int messageId) {
+        return messageService.getMessage(messageId)
+                .map(message -> ResponseEntity.status(HttpStatus.OK).body(message))
+                .defaultIfEmpty(ResponseEntity.status(HttpStatus.OK).build());
+    }
+
+    /**
+     *  Requirement #6: Delete a message identified by a message ID.
+     *  @return The number of rows deleted. The body will be empty if the deletion was unsuccessful.
+     */
+    @DeleteMapping("/messages/{messageId}")
+    public Mono<ResponseEntity<Integer>> deleteMessageByMessageId(@PathVariable int messageId) {
+        return messageService.deleteMessage(messageId)
+                .map(rowsDeleted -> rowsDeleted > 0
+                        ? ResponseEntity.status(HttpStatus.OK).body(rowsDeleted)
+                        : ResponseEntity.status(HttpStatus.OK).<Integer>build());
+    }
+
+    /**
+     *  Requirement #7: Update a message text identified by a message ID.
+     *  @return The number of rows updated, or 400 if the text is invalid or there is no such message.
+     */
+    @PatchMapping("/messages/{messageId}")
+    public Mono<ResponseEntity<Integer>> patchMessageTextByMessageId(@RequestBody Message newMessage, @PathVariable int messageId) {
+        return messageService.updateMessageText(newMessage.getMessageText(), messageId)
+                .map(rowsUpdated -> ResponseEntity.status(HttpStatus.OK).body(rowsUpdated));
+    }
+
+    /**
+     *  Requirement #8: Retrieve all messages written by a particular user, as a JSON array or, with
+     *  Accept: application/x-ndjson, as a stream.
+     */
+    @GetMapping(value = "/accounts/{accountId}/messages", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<Message> getAllMessagesByAccount(@PathVariable int accountId) {
+        return messageService.getAllMessagesByAccount(accountId);
+    }
+
+    // ******************
+    // Exception Handling
+    // ******************
+    @ExceptionHandler(BadRequestException.class)
+    public ResponseEntity<String> badRequest(BadRequestException ex) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
+    }
+}
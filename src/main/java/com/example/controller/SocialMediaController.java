@@ -1,9 +1,12 @@
 package com.example.controller;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -11,16 +14,29 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.example.dto.MessageBatchItem;
+import com.example.dto.MessagePage;
+import com.example.dto.MessageView;
 import com.example.entity.Account;
 import com.example.entity.Message;
 import com.example.exception.BadRequestException;
 import com.example.exception.DuplicateUsernameException;
+import com.example.exception.ServiceUnavailableException;
 import com.example.exception.UnauthorizedException;
 import com.example.service.AccountService;
 import com.example.service.MessageService;
+import com.example.service.MessageVersions;
+import com.example.service.TimelineService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 
 /**
  * TODO: You will need to write your own endpoints and handlers for your controller using Spring. The endpoints you will need can be
@@ -29,41 +45,60 @@ import com.example.service.MessageService;
  * refer to prior mini-project labs and lecture materials for guidance on how a controller may be built.
  */
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class SocialMediaController {
+    /**
+     * Counts the exceptions turned into error responses by the handlers below, tagged by exception and status.
+     */
+    public static final String HANDLED_EXCEPTIONS_METRIC = "socialmedia.exceptions.handled";
+
     private AccountService accountService;
     private MessageService messageService;
+    private TimelineService timelineService;
+    private final Counter badRequestCounter;
+    private final Counter duplicateUsernameCounter;
+    private final Counter unauthorizedCounter;
+    private final Counter serviceUnavailableCounter;
 
     @Autowired
-    public SocialMediaController(AccountService accountService, MessageService messageService) {
+    public SocialMediaController(AccountService accountService, MessageService messageService, TimelineService timelineService,
+            MeterRegistry meterRegistry) {
         this.accountService = accountService;
         this.messageService = messageService;
+        this.timelineService = timelineService;
+        this.badRequestCounter = handledExceptionCounter(meterRegistry, BadRequestException.class, HttpStatus.BAD_REQUEST);
+        this.duplicateUsernameCounter = handledExceptionCounter(meterRegistry, DuplicateUsernameException.class, HttpStatus.CONFLICT);
+        this.unauthorizedCounter = handledExceptionCounter(meterRegistry, UnauthorizedException.class, HttpStatus.UNAUTHORIZED);
+        this.serviceUnavailableCounter = handledExceptionCounter(meterRegistry, ServiceUnavailableException.class, HttpStatus.SERVICE_UNAVAILABLE);
     }
 
     /**
      *  Requirement #1: Process new user registrations.
      *  @param  account The body of the request representing a new Account object to be registered, not including accountId.
-     *  @return A ResponseEntity with the status of 200 (OK) 
-     *          and a body representing the newly registered account, including its generated accountId. 
-     *  @throws DuplicateUsernameException
-     *  @throws BadRequestException
+     *  @return A future ResponseEntity with the status of 200 (OK)
+     *          and a body representing the newly registered account, including its generated accountId.
+     *          Password hashing runs on the credential executor, not the request thread.
+     *          Fails with DuplicateUsernameException, BadRequestException or, when the executor is saturated,
+     *          ServiceUnavailableException (503).
      */
     @PostMapping("/register")
-    public ResponseEntity<Account> registerAccount(@RequestBody Account account) throws DuplicateUsernameException, BadRequestException {
-        Account registered = accountService.registerAccount(account);
-        return ResponseEntity.status(HttpStatus.OK).body(registered);
+    public CompletableFuture<ResponseEntity<Account>> registerAccount(@RequestBody Account account) {
+        return accountService.registerAccountAsync(account)
+                .thenApply(registered -> ResponseEntity.status(HttpStatus.OK).body(registered));
     }
 
     /**
      *  Requirement #2: Process user logins.
      *  @param  account The body of the request representing the Account that is trying to log in.
-     *  @return A ResponseEntity with the status of 200 (OK) 
+     *  @return A future ResponseEntity with the status of 200 (OK)
      *          and a body representing the verified account, including its accountId.
-     *  @throws UnauthorizedException
+     *          Password verification runs on the credential executor, not the request thread.
+     *          Fails with UnauthorizedException (401) or, when the executor is saturated, ServiceUnavailableException (503).
      */
     @PostMapping("/login")
-    public ResponseEntity<Account> verifyLogin(@RequestBody Account account) throws UnauthorizedException {
-        Account verified = accountService.verifyLogin(account);
-        return ResponseEntity.status(HttpStatus.OK).body(verified);
+    public CompletableFuture<ResponseEntity<Account>> verifyLogin(@RequestBody Account account) {
+        return accountService.verifyLoginAsync(account)
+                .thenApply(verified -> ResponseEntity.status(HttpStatus.OK).body(verified));
     }
 
     /**
@@ -72,32 +107,94 @@ public class SocialMediaController {
      *  @return A ResponseEntity with the status of 200 (OK) 
      *          and a body representing the created message, including its generated messageId.
      *  @throws BadRequestException
+     *  @throws ServiceUnavailableException When messages are written behind and too many are already waiting.
      */
     @PostMapping("/messages")
-    public ResponseEntity<Message> createMessage(@RequestBody Message message) throws BadRequestException {
+    public ResponseEntity<Message> createMessage(@RequestBody Message message) throws BadRequestException, ServiceUnavailableException {
         Message createdMessage = messageService.addMessage(message);
         return ResponseEntity.status(HttpStatus.OK).body(createdMessage);
     }
 
+    /**
+     *  Create many messages in one request.
+     *  @param  messages    The body of the request representing the messages to be created, not including messageIds.
+     *  @return A ResponseEntity with the status of 200 (OK)
+     *          and a body containing one result per message, in request order. Each result holds either the created
+     *          message, including its generated messageId, or the reason the message was rejected.
+     *  @throws BadRequestException When the batch holds more than MessageService.MAX_BATCH_SIZE messages.
+     */
+    @PostMapping("/messages/batch")
+    public ResponseEntity<List<MessageBatchItem>> createMessages(@RequestBody List<Message> messages) throws BadRequestException {
+        return ResponseEntity.status(HttpStatus.OK).body(messageService.addMessages(messages));
+    }
+
     /**
      *  Requirement #4: Retrieve all messages.
      *  @return A ResponseEntity with the status of 200 (OK) 
      *          and a body representing a list of all available messages.
      */
     @GetMapping("/messages")
-    public ResponseEntity<List<Message>> retrieveAllMessages() {
+    public ResponseEntity<List<MessageView>> retrieveAllMessages() {
         return ResponseEntity.status(HttpStatus.OK).body(messageService.getAllMessages());
     }
 
+    /**
+     *  Export every message as newline-delimited JSON (one message object per line), ordered by messageId.
+     *  The body is streamed from a database cursor, so the full message list is never held in memory.
+     *  @return A ResponseEntity with the status of 200 (OK) and a streaming body of all messages.
+     */
+    @GetMapping(value = "/messages/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportAllMessages() {
+        return ResponseEntity.status(HttpStatus.OK)
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(out -> messageService.exportMessages(out));
+    }
+
+    /**
+     *  Retrieve messages one page at a time, ordered by messageId.
+     *  @param  cursor  The opaque cursor returned with the previous page. Omit it to start from the first message.
+     *  @param  limit   The maximum number of messages in the page. Values above MessageService.MAX_PAGE_SIZE are capped.
+     *  @return A ResponseEntity with the status of 200 (OK)
+     *          and a body containing the page of messages and the cursor for the next page (null on the last page).
+     *  @throws BadRequestException
+     */
+    @GetMapping("/messages/page")
+    public ResponseEntity<MessagePage> retrieveMessagePage(@RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + MessageService.DEFAULT_PAGE_SIZE) int limit) throws BadRequestException {
+        return ResponseEntity.status(HttpStatus.OK).body(messageService.getMessagesPage(cursor, limit));
+    }
+
+    /**
+     *  Search messages by keyword.
+     *  @param  q       The words to search for. A message matches when its text contains every word, ignoring case.
+     *  @param  limit   The maximum number of messages to return. Values above MessageService.MAX_PAGE_SIZE are capped.
+     *  @return A ResponseEntity with the status of 200 (OK)
+     *          and a body containing the most recent matching messages, newest first.
+     *  @throws BadRequestException
+     *  @throws ServiceUnavailableException While the search index is being loaded after startup.
+     */
+    @GetMapping("/messages/search")
+    public ResponseEntity<List<MessageView>> searchMessages(@RequestParam String q,
+            @RequestParam(defaultValue = "" + MessageService.DEFAULT_PAGE_SIZE) int limit) throws BadRequestException, ServiceUnavailableException {
+        return ResponseEntity.status(HttpStatus.OK).body(messageService.searchMessages(q, limit));
+    }
+
      /**
      *  Requirement #5: Retrieve a message by its ID.
      *  @param  messageId The ID of the message to be retrieved.
+     *  @param  request   The request, whose If-None-Match header is checked against the message's ETag.
      *  @return A ResponseEntity with the status of 200 (OK) 
      *          and a body representing the matching message. Body is empty if there is no matching message.
+     *          Found messages carry a content-derived ETag; if the client already holds it, the response is
+     *          304 (Not Modified) with no body.
      */
     @GetMapping("/messages/{messageId}")
-    public ResponseEntity<Message> retrieveMessageByMessageId(@PathVariable int messageId) {
-        return ResponseEntity.status(HttpStatus.OK).body(messageService.getMessage(messageId));
+    public ResponseEntity<Message> retrieveMessageByMessageId(@PathVariable int messageId, WebRequest request) {
+        Message message = messageService.getMessage(messageId);
+        if(message != null && request.checkNotModified(MessageVersions.messageETag(message))) {
+            return null;
+        }
+        return ResponseEntity.status(HttpStatus.OK).body(message);
     }
 
     /**
@@ -109,12 +206,32 @@ public class SocialMediaController {
      */
     @DeleteMapping("/messages/{messageId}")
     public ResponseEntity<Integer> deleteMessageByMessageId(@PathVariable int messageId) {
-        int rowsUpdated = messageService.deleteMessage(messageId);
-        if(rowsUpdated > 0) {
-            return ResponseEntity.status(HttpStatus.OK).body(rowsUpdated);
-        } else {
-            return ResponseEntity.status(HttpStatus.OK).build();
-        }
+        return rowsDeleted(messageService.deleteMessage(messageId));
+    }
+
+    /**
+     *  Delete many messages identified by their message IDs.
+     *  @param  ids The IDs of the messages to be deleted, e.g. ?ids=1,2,3 (at most MessageService.MAX_BATCH_SIZE).
+     *  @return A ResponseEntity with the status of 200 (OK)
+     *          and a body containing the number of rows in the database that were deleted.
+     *          The body will be empty if no messages were deleted.
+     *  @throws BadRequestException
+     */
+    @DeleteMapping("/messages")
+    public ResponseEntity<Integer> deleteMessagesByMessageIds(@RequestParam List<Integer> ids) throws BadRequestException {
+        return rowsDeleted(messageService.deleteMessages(ids));
+    }
+
+    /**
+     *  Delete every message written by a particular user.
+     *  @param  accountId   The ID of the account whose messages are to be deleted.
+     *  @return A ResponseEntity with the status of 200 (OK)
+     *          and a body containing the number of rows in the database that were deleted.
+     *          The body will be empty if no messages were deleted.
+     */
+    @DeleteMapping("/accounts/{accountId}/messages")
+    public ResponseEntity<Integer> deleteMessagesByAccount(@PathVariable int accountId) {
+        return rowsDeleted(messageService.deleteMessagesByAccount(accountId));
     }
 
     /**
@@ -134,29 +251,118 @@ public class SocialMediaController {
     /**
      *  Requirement #8: Retrieve all messages written by a particular user.
      *  @param  accountId   The ID of the account which posted the messages to be retrieved.
+     *  @param  request     The request, whose If-None-Match header is checked against the list's ETag.
      *  @return A ResponseEntity with the status of 200 (OK) 
      *          and a body containing a list of messages by the identified user.
+     *          The list carries an ETag taken from the account's version counter; if the client already holds
+     *          it, the response is 304 (Not Modified) with no body and the messages are never read.
      */
     @GetMapping("/accounts/{accountId}/messages")
-    public ResponseEntity<List<Message>> getAllMessagesByAccount(@PathVariable int accountId) {
+    public ResponseEntity<List<MessageView>> getAllMessagesByAccount(@PathVariable int accountId, WebRequest request) {
+        if(request.checkNotModified(messageService.getAllMessagesByAccountETag(accountId))) {
+            return null;
+        }
         return ResponseEntity.status(HttpStatus.OK).body(messageService.getAllMessagesByAccount(accountId));
     }
 
+    /**
+     *  Retrieve the messages written by a particular user one page at a time, newest first.
+     *  @param  accountId   The ID of the account which posted the messages to be retrieved.
+     *  @param  cursor      The opaque cursor returned with the previous page. Omit it to start from the newest message.
+     *  @param  limit       The maximum number of messages in the page. Values above MessageService.MAX_PAGE_SIZE are capped.
+     *  @return A ResponseEntity with the status of 200 (OK)
+     *          and a body containing the page of messages and the cursor for the next page (null on the last page).
+     *  @throws BadRequestException
+     */
+    @GetMapping("/accounts/{accountId}/messages/page")
+    public ResponseEntity<MessagePage> getMessagePageByAccount(@PathVariable int accountId, @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + MessageService.DEFAULT_PAGE_SIZE) int limit) throws BadRequestException {
+        return ResponseEntity.status(HttpStatus.OK).body(messageService.getMessagesByAccountPage(accountId, cursor, limit));
+    }
+
+    /**
+     *  Follow another account, so that its messages appear in this account's home timeline.
+     *  @param  accountId   The ID of the account that will follow.
+     *  @param  followedId  The ID of the account to be followed.
+     *  @return A ResponseEntity with the status of 200 (OK) and an empty body, whether or not the account was
+     *          already following.
+     *  @throws BadRequestException
+     */
+    @PutMapping("/accounts/{accountId}/following/{followedId}")
+    public ResponseEntity<Void> followAccount(@PathVariable int accountId, @PathVariable int followedId) throws BadRequestException {
+        timelineService.follow(accountId, followedId);
+        return ResponseEntity.status(HttpStatus.OK).build();
+    }
+
+    /**
+     *  Stop following another account.
+     *  @param  accountId   The ID of the account that follows.
+     *  @param  followedId  The ID of the account to stop following.
+     *  @return A ResponseEntity with the status of 200 (OK)
+     *          and a body containing the number of follows that were deleted.
+     *          The body will be empty if the account was not following.
+     */
+    @DeleteMapping("/accounts/{accountId}/following/{followedId}")
+    public ResponseEntity<Integer> unfollowAccount(@PathVariable int accountId, @PathVariable int followedId) {
+        return rowsDeleted(timelineService.unfollow(accountId, followedId));
+    }
+
+    /**
+     *  Retrieve an account's home timeline one page at a time: its own messages and those of the accounts it
+     *  follows, newest first.
+     *  @param  accountId   The ID of the account whose timeline is to be retrieved.
+     *  @param  cursor      The opaque cursor returned with the previous page. Omit it to start from the newest message.
+     *  @param  limit       The maximum number of messages in the page. Values above MessageService.MAX_PAGE_SIZE are capped.
+     *  @return A ResponseEntity with the status of 200 (OK)
+     *          and a body containing the page of messages and the cursor for the next page (null on the last page).
+     *  @throws BadRequestException
+     */
+    @GetMapping("/accounts/{accountId}/timeline")
+    public ResponseEntity<MessagePage> getTimeline(@PathVariable int accountId, @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + MessageService.DEFAULT_PAGE_SIZE) int limit) throws BadRequestException {
+        return ResponseEntity.status(HttpStatus.OK).body(timelineService.getTimeline(accountId, cursor, limit));
+    }
+
+    private static ResponseEntity<Integer> rowsDeleted(int rowsUpdated) {
+        if(rowsUpdated > 0) {
+            return ResponseEntity.status(HttpStatus.OK).body(rowsUpdated);
+        } else {
+            return ResponseEntity.status(HttpStatus.OK).build();
+        }
+    }
+
+    private static Counter handledExceptionCounter(MeterRegistry meterRegistry, Class<? extends Exception> exception, HttpStatus status) {
+        return Counter.builder(HANDLED_EXCEPTIONS_METRIC)
+                .description("Exceptions handled by SocialMediaController")
+                .tag("exception", exception.getSimpleName())
+                .tag("status", String.valueOf(status.value()))
+                .register(meterRegistry);
+    }
+
     // ******************
     // Exception Handling
     // ******************
     @ExceptionHandler(BadRequestException.class)
     public ResponseEntity<String> badRequest(BadRequestException ex) {
+        badRequestCounter.increment();
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
     }
 
     @ExceptionHandler(DuplicateUsernameException.class)
     public ResponseEntity<String> duplicateUserNameConflict(DuplicateUsernameException ex) {
+        duplicateUsernameCounter.increment();
         return ResponseEntity.status(HttpStatus.CONFLICT).body(ex.getMessage());
     }
 
     @ExceptionHandler(UnauthorizedException.class)
     public ResponseEntity<String> unauthorized(UnauthorizedException ex) {
+        unauthorizedCounter.increment();
         return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(ex.getMessage());
     }
+
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<String> serviceUnavailable(ServiceUnavailableException ex) {
+        serviceUnavailableCounter.increment();
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(ex.getMessage());
+    }
 }
@@ -0,0 +1,63 @@
+package com.example.dto;
+
+import com.example.entity.Message;
+
+/**
+ * This is a class that models the outcome of one message in a batch creation request.
+ */
+public class MessageBatchItem {
+    /**
+     * The position of the message in the request body.
+     */
+    private int index;
+    /**
+     * The created message, including its generated messageId. Null when the message was rejected.
+     */
+    private Message message;
+    /**
+     * The reason the message was rejected. Null when the message was created.
+     */
+    private String error;
+
+    public MessageBatchItem() {
+    }
+
+    public MessageBatchItem(int index, Message message, String error) {
+        this.index = index;
+        this.message = message;
+        this.error = error;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public Message getMessage() {
+        return message;
+    }
+
+    public void setMessage(Message message) {
+        this.message = message;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    @Override
+    public String toString() {
+        return "MessageBatchItem{" +
+                "index=" + index +
+                ", message=" + message +
+                ", error='" + error + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.dto;
+
+import java.util.List;
+
+import com.example.entity.Message;
+
+/**
+ * This is a class that models one page of messages returned by a cursor-paginated endpoint.
+ */
+public class MessagePage {
+    /**
+     * The messages on this page, in the order defined by the endpoint.
+     */
+    private List<Message> messages;
+    /**
+     * An opaque cursor for the page that follows this one. Null when there are no more messages.
+     */
+    private String next;
+
+    public MessagePage() {
+    }
+
+    public MessagePage(List<Message> messages, String next) {
+        this.messages = messages;
+        this.next = next;
+    }
+
+    public List<Message> getMessages() {
+        return messages;
+    }
+
+    public void setMessages(List<Message> messages) {
+        this.messages = messages;
+    }
+
+    public String getNext() {
+        return next;
+    }
+
+    public void setNext(String next) {
+        this.next = next;
+    }
+
+    @Override
+    public String toString() {
+        return "MessagePage{" +
+                "messages=" + messages +
+                ", next='" + next + '\'' +
+                '}';
+    }
+}
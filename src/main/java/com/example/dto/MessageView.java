@@ -0,0 +1,69 @@
+package com.example.dto;
+
+import java.util.Objects;
+
+/**
+ * This is a class that models a read-only view of a message, as returned by the list endpoints.
+ *
+ * It serializes to the same JSON as Message, but is built directly from query results by a JPQL constructor
+ * expression, so listing messages creates no managed entities, entity snapshots or persistence-context entries.
+ */
+public class MessageView {
+    private final Integer messageId;
+    private final Integer postedBy;
+    private final String messageText;
+    private final Long timePostedEpoch;
+
+    /**
+     * The fields are nullable, as they are on Message: a message may be stored without a timePostedEpoch.
+     */
+    public MessageView(Integer messageId, Integer postedBy, String messageText, Long timePostedEpoch) {
+        this.messageId = messageId;
+        this.postedBy = postedBy;
+        this.messageText = messageText;
+        this.timePostedEpoch = timePostedEpoch;
+    }
+
+    public Integer getMessageId() {
+        return messageId;
+    }
+
+    public Integer getPostedBy() {
+        return postedBy;
+    }
+
+    public String getMessageText() {
+        return messageText;
+    }
+
+    public Long getTimePostedEpoch() {
+        return timePostedEpoch;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if(this == o) {
+            return true;
+        } else if(o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        MessageView other = (MessageView) o;
+        return Objects.equals(messageId, other.messageId) && Objects.equals(postedBy, other.postedBy)
+                && Objects.equals(messageText, other.messageText) && Objects.equals(timePostedEpoch, other.timePostedEpoch);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(messageId, postedBy, messageText, timePostedEpoch);
+    }
+
+    @Override
+    public String toString() {
+        return "MessageView{" +
+                "messageId=" + messageId +
+                ", postedBy=" + postedBy +
+                ", messageText='" + messageText + '\'' +
+                ", timePostedEpoch=" + timePostedEpoch +
+                '}';
+    }
+}
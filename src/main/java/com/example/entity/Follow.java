@@ -0,0 +1,110 @@
+package com.example.entity;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+import javax.persistence.*;
+
+/**
+ * This is a class that models one Account following another. Messages posted by the followed account appear in
+ * the follower's home timeline.
+ */
+@Entity
+@Table(name="follow")
+@IdClass(Follow.Key.class)
+public class Follow {
+    /**
+     * The id of the Account doing the following.
+     */
+    @Id
+    @Column(name="followerId")
+    private Integer followerId;
+    /**
+     * The id of the Account being followed.
+     */
+    @Id
+    @Column(name="followedId")
+    private Integer followedId;
+
+    /**
+     * The composite primary key of a Follow.
+     */
+    public static class Key implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private Integer followerId;
+        private Integer followedId;
+
+        public Key() {
+        }
+
+        public Key(Integer followerId, Integer followedId) {
+            this.followerId = followerId;
+            this.followedId = followedId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if(this == o) {
+                return true;
+            } else if(o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key other = (Key) o;
+            return Objects.equals(followerId, other.followerId) && Objects.equals(followedId, other.followedId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(followerId, followedId);
+        }
+    }
+
+    public Follow() {
+    }
+
+    public Follow(Integer followerId, Integer followedId) {
+        this.followerId = followerId;
+        this.followedId = followedId;
+    }
+
+    public Integer getFollowerId() {
+        return followerId;
+    }
+
+    public void setFollowerId(Integer followerId) {
+        this.followerId = followerId;
+    }
+
+    public Integer getFollowedId() {
+        return followedId;
+    }
+
+    public void setFollowedId(Integer followedId) {
+        this.followedId = followedId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if(this == o) {
+            return true;
+        } else if(o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        Follow other = (Follow) o;
+        return Objects.equals(followerId, other.followerId) && Objects.equals(followedId, other.followedId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(followerId, followedId);
+    }
+
+    @Override
+    public String toString() {
+        return "Follow{" +
+                "followerId=" + followerId +
+                ", followedId=" + followedId +
+                '}';
+    }
+}
@@ -1,9 +1,15 @@
 package com.example.exception;
 
+/**
+ * Signals invalid input (400). Bots send plenty of it, so the exception is created without a stack trace,
+ * which would otherwise dominate the cost of rejecting the request.
+ */
 public class BadRequestException extends Exception {
-    public BadRequestException() {}
+    public BadRequestException() {
+        this(null);
+    }
 
     public BadRequestException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 }
@@ -1,9 +1,15 @@
 package com.example.exception;
 
+/**
+ * Signals a registration for a username that is already taken (409). Created without a stack trace; the
+ * outcome is routine and the trace would never be read.
+ */
 public class DuplicateUsernameException extends Exception {
-    public DuplicateUsernameException(){}
+    public DuplicateUsernameException() {
+        this(null);
+    }
 
     public DuplicateUsernameException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 }
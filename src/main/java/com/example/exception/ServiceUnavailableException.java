@@ -0,0 +1,15 @@
+package com.example.exception;
+
+/**
+ * Signals that a request was shed because the server is saturated (503). Created without a stack trace, as it
+ * is thrown exactly when the server can least afford the extra work.
+ */
+public class ServiceUnavailableException extends Exception {
+    public ServiceUnavailableException() {
+        this(null);
+    }
+
+    public ServiceUnavailableException(String message) {
+        super(message, null, false, false);
+    }
+}
@@ -1,9 +1,15 @@
 package com.example.exception;
 
+/**
+ * Signals a failed login (401). Created without a stack trace, so rejecting credential-stuffing traffic
+ * does not also pay for a stack walk.
+ */
 public class UnauthorizedException extends Exception {
-    public UnauthorizedException() {}
+    public UnauthorizedException() {
+        this(null);
+    }
 
     public UnauthorizedException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 }
@@ -1,12 +1,32 @@
 package com.example.repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import javax.persistence.QueryHint;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.example.entity.Account;
 
 @Repository
+@Transactional(readOnly = true)
 public interface AccountRepository extends JpaRepository<Account, Integer> {
     Account findAccountByUsername(String username);
-    Account findAccountByUsernameAndPassword(String username, String password);
+
+    @Query("SELECT accountId FROM Account WHERE accountId IN ?1")
+    List<Integer> findExistingAccountIds(Collection<Integer> accountIds);
+
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query("SELECT username FROM Account")
+    Stream<String> streamAllUsernames();
+
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query("SELECT accountId FROM Account")
+    Stream<Integer> streamAllAccountIds();
 }
@@ -0,0 +1,31 @@
+package com.example.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.entity.Follow;
+
+@Repository
+@Transactional(readOnly = true)
+public interface FollowRepository extends JpaRepository<Follow, Follow.Key> {
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM Follow WHERE followerId = ?1 AND followedId = ?2")
+    int deleteByFollowerIdAndFollowedId(int followerId, int followedId);
+
+    @Query("SELECT followerId FROM Follow WHERE followedId = ?1")
+    List<Integer> findFollowerIds(int followedId);
+
+    @Query("SELECT followedId FROM Follow WHERE followerId = ?1")
+    List<Integer> findFollowedIds(int followerId);
+
+    long countByFollowedId(int followedId);
+
+    @Query("SELECT followedId FROM Follow GROUP BY followedId HAVING COUNT(*) > ?1")
+    List<Integer> findFollowedIdsWithMoreFollowersThan(long followers);
+}
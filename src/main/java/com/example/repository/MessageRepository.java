@@ -1,22 +1,140 @@
 package com.example.repository;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
+import javax.persistence.QueryHint;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.example.dto.MessageView;
 import com.example.entity.Message;
 
 @Repository
-public interface MessageRepository extends JpaRepository<Message, Integer> {
-    @Modifying
-    int deleteByMessageId(int messageId);
+@Transactional(readOnly = true)
+public interface MessageRepository extends JpaRepository<Message, Integer>, MessageStore {
+    // Declared in both JpaRepository and MessageStore; restated so that calls through this interface are not ambiguous.
+    @Override
+    Optional<Message> findById(Integer messageId);
+
+    @Override
+    List<Message> findAllById(Iterable<Integer> messageIds);
 
+    /**
+     *  The DELETE runs inside the SELECT (H2's data change delta table), so the authors come back without a
+     *  separate read.
+     */
+    @Transactional
+    @Query(value = "SELECT postedBy FROM OLD TABLE (DELETE FROM message WHERE messageId IN (?1))", nativeQuery = true)
+    List<Integer> deleteReturningAuthors(Collection<Integer> messageIds);
+
+    @Transactional
     @Modifying
-    @Query("UPDATE Message SET messageText = ?1 WHERE messageId = ?2")
-    int updateMessageTextByMessageId(String messageText, int messageId);
+    @Query("DELETE FROM Message WHERE postedBy = ?1")
+    int deleteByPostedBy(int accountId);
+
+    @Transactional
+    @Query(value = "SELECT postedBy FROM FINAL TABLE (UPDATE message SET messageText = ?1 WHERE messageId = ?2)", nativeQuery = true)
+    List<Integer> updateMessageTextReturningAuthors(String messageText, int messageId);
 
     List<Message> findMessagesByPostedBy(int accountId);
+
+    @Query("SELECT new com.example.dto.MessageView(messageId, postedBy, messageText, timePostedEpoch)"
+            + " FROM Message ORDER BY messageId")
+    List<MessageView> findAllViews();
+
+    @Query("SELECT new com.example.dto.MessageView(messageId, postedBy, messageText, timePostedEpoch)"
+            + " FROM Message WHERE postedBy = ?1 ORDER BY messageId")
+    List<MessageView> findViewsByPostedBy(int accountId);
+
+    @Query("SELECT new com.example.dto.MessageView(messageId, postedBy, messageText, timePostedEpoch)"
+            + " FROM Message WHERE messageId IN ?1")
+    List<MessageView> findViewsByMessageIdIn(Collection<Integer> messageIds);
+
+    @Query("FROM Message WHERE messageId > ?1 ORDER BY messageId")
+    List<Message> findMessagesAfter(int messageId, Pageable pageable);
+
+    /**
+     *  Runs as a page after the newest possible keys. With postedBy as its only condition H2 would pick the foreign
+     *  key's index over message_postedBy_newest_idx and sort the whole account; the time range steers it to the
+     *  latter.
+     */
+    @Override
+    default List<Message> findLatestByPostedBy(int accountId, Pageable pageable) {
+        return findLatestByPostedByBefore(accountId, Long.MAX_VALUE, Integer.MAX_VALUE, pageable);
+    }
+
+    /**
+     *  Reads the timed messages after the keys, then, if the page is not full, the messages without a time. Each is
+     *  a range of message_postedBy_newest_idx read in order, which stops once the page is full; one query joining
+     *  them with OR could not seek the index and would read and sort every message of the account.
+     */
+    @Override
+    default List<Message> findLatestByPostedByBefore(int accountId, long timePostedEpoch, int messageId, Pageable pageable) {
+        List<Message> messages = new ArrayList<>(pageable.getPageSize());
+        int untimedBefore = messageId;
+        if(timePostedEpoch != NO_TIME) {
+            messages.addAll(findTimedByPostedByBefore(accountId, timePostedEpoch, messageId, PageRequest.of(0, pageable.getPageSize())));
+            untimedBefore = Integer.MAX_VALUE;
+        }
+        if(messages.size() < pageable.getPageSize()) {
+            messages.addAll(findUntimedByPostedByBefore(accountId, untimedBefore, PageRequest.of(0, pageable.getPageSize() - messages.size())));
+        }
+        return messages;
+    }
+
+    /**
+     *  The lower bound keeps the range scan from running on into the account's messages without a time, which the
+     *  index holds after the timed ones. Long.MIN_VALUE itself is NO_TIME, so no cursor needs it.
+     */
+    @Query("FROM Message WHERE postedBy = ?1 AND timePostedEpoch >= " + (Long.MIN_VALUE + 1) + "L AND timePostedEpoch <= ?2"
+            + " AND (timePostedEpoch < ?2 OR messageId < ?3) ORDER BY postedBy, timePostedEpoch DESC, messageId DESC")
+    List<Message> findTimedByPostedByBefore(int accountId, long timePostedEpoch, int messageId, Pageable pageable);
+
+    @Query("FROM Message WHERE postedBy = ?1 AND timePostedEpoch IS NULL AND messageId < ?2"
+            + " ORDER BY postedBy, timePostedEpoch DESC, messageId DESC")
+    List<Message> findUntimedByPostedByBefore(int accountId, int messageId, Pageable pageable);
+
+    /**
+     *  Reads a page per author the same way as findLatestByPostedByBefore and merges them. A single query on
+     *  postedBy IN the follows would read every message of every author and sort them, since H2 cannot read an
+     *  index in order across several postedBy values.
+     */
+    @Override
+    default List<Message> findTimelineBefore(int accountId, long timePostedEpoch, int messageId, Pageable pageable) {
+        Set<Integer> authors = new LinkedHashSet<>(findFollowedIds(accountId));
+        authors.add(accountId);
+        List<Message> messages = new ArrayList<>();
+        for(int authorId : authors) {
+            messages.addAll(findLatestByPostedByBefore(authorId, timePostedEpoch, messageId, pageable));
+        }
+        messages.sort(NEWEST_FIRST);
+        return messages.subList(0, Math.min(messages.size(), pageable.getPageSize()));
+    }
+
+    @Query("SELECT followedId FROM Follow WHERE followerId = ?1")
+    List<Integer> findFollowedIds(int followerId);
+
+    @QueryHints({
+        @QueryHint(name = "org.hibernate.fetchSize", value = "500"),
+        @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query("FROM Message ORDER BY messageId")
+    Stream<Message> streamAllMessages();
+
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "500"))
+    @Query("SELECT new com.example.dto.MessageView(messageId, postedBy, messageText, timePostedEpoch) FROM Message")
+    Stream<MessageView> streamAllViews();
 }
@@ -0,0 +1,103 @@
+package com.example.repository;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.springframework.data.domain.Pageable;
+
+import com.example.dto.MessageView;
+import com.example.entity.Message;
+
+/**
+ * The message operations the services use. MessageRepository provides them from the primary database through JPA;
+ * ShardedMessageRepository provides them across the message shards when socialmedia.messages.shards is set.
+ *
+ * Lists of messages are ordered by messageId unless a method says otherwise. Newest-first reads order by
+ * timePostedEpoch, then messageId, both descending, with messages that have no time last.
+ */
+public interface MessageStore {
+    /**
+     * The time key that stands for a message without a timePostedEpoch in a newest-first cursor. Such messages sort
+     * as the oldest.
+     */
+    long NO_TIME = Long.MIN_VALUE;
+
+    /**
+     * The newest-first order, for merging pages read separately.
+     */
+    Comparator<Message> NEWEST_FIRST = Comparator.comparing(Message::getTimePostedEpoch, Comparator.nullsFirst(Comparator.<Long>naturalOrder()))
+            .thenComparing(Message::getMessageId)
+            .reversed();
+
+    /**
+     *  @param  message A new message, without a messageId.
+     *  @return The stored message, with its messageId set.
+     */
+    <S extends Message> S save(S message);
+
+    /**
+     *  @param  messages    New messages, without messageIds.
+     *  @return The stored messages, with their messageIds set.
+     */
+    <S extends Message> List<S> saveAll(Iterable<S> messages);
+
+    Optional<Message> findById(Integer messageId);
+
+    List<Message> findAllById(Iterable<Integer> messageIds);
+
+    /**
+     *  Deletes the messages in one statement per database.
+     *  @return The postedBy of each message deleted (null for one without an author), taken from the deleted rows;
+     *          its size is the number of messages deleted.
+     */
+    List<Integer> deleteReturningAuthors(Collection<Integer> messageIds);
+
+    int deleteByPostedBy(int accountId);
+
+    /**
+     *  Updates the message's text in one statement.
+     *  @return The postedBy of the updated message, taken from the updated row; empty if there is no such message.
+     */
+    List<Integer> updateMessageTextReturningAuthors(String messageText, int messageId);
+
+    List<MessageView> findAllViews();
+
+    List<MessageView> findViewsByPostedBy(int accountId);
+
+    /**
+     *  @return The views found, in no particular order.
+     */
+    List<MessageView> findViewsByMessageIdIn(Collection<Integer> messageIds);
+
+    List<Message> findMessagesAfter(int messageId, Pageable pageable);
+
+    /**
+     *  @return The account's messages, newest first.
+     */
+    List<Message> findLatestByPostedBy(int accountId, Pageable pageable);
+
+    /**
+     *  @return The account's messages older than the given keys, newest first. NO_TIME stands for a cursor taken on
+     *          a message without a time. The page starts right after the keys, so the pageable's offset is not used.
+     */
+    List<Message> findLatestByPostedByBefore(int accountId, long timePostedEpoch, int messageId, Pageable pageable);
+
+    /**
+     *  @return The messages of the account and the accounts it follows older than the given keys, newest first. As
+     *          with findLatestByPostedByBefore, the pageable's offset is not used.
+     */
+    List<Message> findTimelineBefore(int accountId, long timePostedEpoch, int messageId, Pageable pageable);
+
+    /**
+     *  @return Every message. The caller must close the stream.
+     */
+    Stream<Message> streamAllMessages();
+
+    /**
+     *  @return Every message as a view, in no particular order. The caller must close the stream.
+     */
+    Stream<MessageView> streamAllViews();
+}
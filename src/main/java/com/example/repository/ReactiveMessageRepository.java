@@ -0,0 +1,145 @@
+package com.example.repository;
+
+import java.util.function.Function;
+
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Repository;
+
+import com.example.entity.Message;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.Statement;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking access to the message table over R2DBC, used by the reactive stack.
+ *
+ * The ConnectionFactory is kept private rather than exposed as a bean: Spring Boot backs its JDBC DataSource off
+ * when a ConnectionFactory bean exists, and the JPA repositories must keep working alongside this one.
+ * It points at the same in-memory H2 database as spring.datasource.url. Each operation runs on its own connection,
+ * which is released when the returned publisher completes, errors or is cancelled.
+ *
+ * H2 runs in-process, so r2dbc-h2 executes each statement on the subscribing event-loop thread; against an
+ * in-memory database that is a few microseconds of CPU work, not I/O wait.
+ */
+@Repository
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveMessageRepository {
+    private static final String COLUMNS = "messageId, postedBy, messageText, timePostedEpoch";
+
+    private final ConnectionFactory connectionFactory;
+
+    /**
+     *  @param  url         The R2DBC URL of the database.
+     *  @param  username    The database user.
+     *  @param  password    The database password.
+     */
+    public ReactiveMessageRepository(@Value("${socialmedia.reactive.r2dbc-url:r2dbc:h2:mem:///testdb}") String url,
+            @Value("${spring.datasource.username:sa}") String username,
+            @Value("${spring.datasource.password:}") String password) {
+        this.connectionFactory = ConnectionFactories.get(ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build());
+    }
+
+    /**
+     *  @return Every message, ordered by messageId. Rows are fetched as the subscriber requests them.
+     */
+    public Flux<Message> findAll() {
+        return query(connection -> connection.createStatement("SELECT " + COLUMNS + " FROM message ORDER BY messageId"));
+    }
+
+    public Mono<Message> findById(int messageId) {
+        return query(connection -> connection.createStatement("SELECT " + COLUMNS + " FROM message WHERE messageId = $1")
+                .bind(0, messageId))
+                .singleOrEmpty();
+    }
+
+    /**
+     *  @return The messages written by the account, ordered by messageId.
+     */
+    public Flux<Message> findByPostedBy(int accountId) {
+        return query(connection -> connection.createStatement("SELECT " + COLUMNS + " FROM message WHERE postedBy = $1 ORDER BY messageId")
+                .bind(0, accountId));
+    }
+
+    public Mono<Boolean> accountExists(int accountId) {
+        return withConnection(connection -> Flux.from(connection.createStatement("SELECT COUNT(*) FROM account WHERE accountId = $1")
+                .bind(0, accountId)
+                .execute())
+                .flatMap(result -> result.map((row, metadata) -> row.get(0, Long.class) > 0)))
+                .single();
+    }
+
+    /**
+     *  Inserts the message under an ID taken from message_seq. Each value drawn here is the start of a block the JPA
+     *  pooled-lo generator never hands out, so IDs cannot collide with messages created through MessageRepository.
+     *  @return The saved message, including its messageId.
+     */
+    public Mono<Message> insert(Message message) {
+        return withConnection(connection -> Flux.from(connection.createStatement("SELECT NEXT VALUE FOR message_seq").execute())
+                .flatMap(result -> result.map((row, metadata) -> row.get(0, Long.class).intValue()))
+                .concatMap(messageId -> Flux.from(bindTime(connection.createStatement("INSERT INTO message (" + COLUMNS + ") VALUES ($1, $2, $3, $4)")
+                        .bind(0, messageId)
+                        .bind(1, message.getPostedBy())
+                        .bind(2, message.getMessageText()), 3, message.getTimePostedEpoch())
+                        .execute())
+                        .flatMap(Result::getRowsUpdated)
+                        .then(Mono.just(new Message(messageId, message.getPostedBy(), message.getMessageText(), message.getTimePostedEpoch())))))
+                .single();
+    }
+
+    /**
+     *  @return The number of rows updated.
+     */
+    public Mono<Integer> updateMessageText(String messageText, int messageId) {
+        return update(connection -> connection.createStatement("UPDATE message SET messageText = $1 WHERE messageId = $2")
+                .bind(0, messageText)
+                .bind(1, messageId));
+    }
+
+    /**
+     *  @return The number of rows deleted.
+     */
+    public Mono<Integer> deleteById(int messageId) {
+        return update(connection -> connection.createStatement("DELETE FROM message WHERE messageId = $1")
+                .bind(0, messageId));
+    }
+
+    /**
+     *  R2DBC rejects a null passed to bind, so a message without a time is bound as a typed null.
+     */
+    private static Statement bindTime(Statement statement, int index, Long timePostedEpoch) {
+        return timePostedEpoch == null ? statement.bindNull(index, Long.class) : statement.bind(index, timePostedEpoch);
+    }
+
+    private Flux<Message> query(Function<Connection, Statement> statement) {
+        return withConnection(connection -> Flux.from(statement.apply(connection).execute())
+                .flatMap(result -> result.map((row, metadata) -> toMessage(row))));
+    }
+
+    private Mono<Integer> update(Function<Connection, Statement> statement) {
+        return withConnection(connection -> Flux.from(statement.apply(connection).execute())
+                .flatMap(Result::getRowsUpdated))
+                .reduce(0L, Long::sum)
+                .map(Long::intValue);
+    }
+
+    private <T> Flux<T> withConnection(Function<Connection, Publisher<T>> work) {
+        return Flux.usingWhen(connectionFactory.create(), work, Connection::close);
+    }
+
+    private static Message toMessage(Row row) {
+        return new Message(row.get("messageId", Integer.class), row.get("postedBy", Integer.class),
+                row.get("messageText", String.class), row.get("timePostedEpoch", Long.class));
+    }
+}
@@ -0,0 +1,538 @@
+package com.example.repository;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.dto.MessageView;
+import com.example.entity.Message;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Stores messages across several databases (shards), chosen by a hash of postedBy. Enabled by setting
+ * socialmedia.messages.shards; the services then use it as their MessageStore in place of the JPA MessageRepository,
+ * which keeps reading the primary database's message table.
+ *
+ * An account's messages all live on one shard, so per-account reads and deletes touch one database and one index
+ * the size of that shard. Reads across accounts (the message list and its pages, the home timeline, export) query
+ * the shards in parallel and merge their ordered results. New IDs come from a sequence on the author's shard that
+ * steps by the shard count, so an ID says which shard holds it and lookups by ID go straight there. Messages
+ * imported from the primary database keep their old IDs, which carry no such meaning, and are looked up on every
+ * shard.
+ *
+ * Each shard has its own pool, built here rather than exposed as a DataSource bean so that Spring Boot keeps
+ * configuring the primary one. Writes commit on their shard as they run: they do not take part in the caller's
+ * transaction, and a batch that spans shards commits shard by shard. The shard count cannot change once the shards
+ * hold data, and the shards must be stored at least as durably as the primary database: importing only happens when
+ * the shard tables are created, so shards that forget their data on restart would come back empty.
+ */
+@Repository
+@Primary
+@ConditionalOnProperty(name = "socialmedia.messages.shards")
+public class ShardedMessageRepository implements MessageStore, SmartInitializingSingleton {
+    private static final String COLUMNS = "messageId, postedBy, messageText, timePostedEpoch";
+    private static final String INSERT = "INSERT INTO message (" + COLUMNS + ") VALUES (?, ?, ?, ?)";
+    private static final String UPSERT = "MERGE INTO message (" + COLUMNS + ") KEY (messageId) VALUES (?, ?, ?, ?)";
+    // As in MessageRepository: a page reads the timed messages after the cursor, then those without a time, each as
+    // an in-order range of message_postedBy_newest_idx. A cursor on a message without a time carries NO_TIME.
+    private static final String NEWER_FIRST = " ORDER BY postedBy, timePostedEpoch DESC, messageId DESC";
+    private static final String TIMED_BEFORE = " AND timePostedEpoch >= " + (Long.MIN_VALUE + 1) + " AND timePostedEpoch <= :time"
+            + " AND (timePostedEpoch < :time OR messageId < :id)";
+    private static final String UNTIMED_BEFORE = " AND timePostedEpoch IS NULL AND messageId < :id";
+    private static final int IMPORT_BATCH = 1_000;
+    private static final Comparator<Message> BY_ID = Comparator.comparing(Message::getMessageId);
+    private static final RowMapper<Message> MESSAGE = (row, rowNum) -> new Message(row.getObject(1, Integer.class),
+            row.getObject(2, Integer.class), row.getString(3), row.getObject(4, Long.class));
+    private static final RowMapper<MessageView> VIEW = (row, rowNum) -> new MessageView(row.getObject(1, Integer.class),
+            row.getObject(2, Integer.class), row.getString(3), row.getObject(4, Long.class));
+
+    private final JdbcTemplate primary;
+    private final FollowRepository followRepository;
+    private final List<HikariDataSource> dataSources = new ArrayList<>();
+    private final List<NamedParameterJdbcTemplate> shards = new ArrayList<>();
+    private final List<TransactionTemplate> shardTransactions = new ArrayList<>();
+    private final ExecutorService executor;
+    private volatile int firstRoutedId;
+    private boolean created;
+
+    /**
+     *  @param  jdbcTemplate    Access to the primary database, whose message table is imported on first start.
+     *  @param  shardCount      The number of shards.
+     *  @param  urlPattern      The JDBC URL of each shard, with %d standing for its index (0 to shardCount - 1).
+     *  @param  ingestMode      socialmedia.ingest.mode; the write-behind queue writes to the primary database and
+     *                          cannot be combined with sharding.
+     *  @param  webApplicationType  spring.main.web-application-type; the reactive stack reads and writes the primary
+     *                          database over R2DBC and cannot be combined with sharding either.
+     */
+    public ShardedMessageRepository(JdbcTemplate jdbcTemplate, FollowRepository followRepository, DataSourceProperties properties,
+            @Value("${socialmedia.messages.shards}") int shardCount,
+            @Value("${socialmedia.messages.shard-url:jdbc:h2:mem:message_shard_%d}") String urlPattern,
+            @Value("${socialmedia.ingest.mode:}") String ingestMode,
+            @Value("${spring.main.web-application-type:}") String webApplicationType) {
+        if(shardCount < 1) {
+            throw new IllegalArgumentException("socialmedia.messages.shards must be at least 1, not " + shardCount + ".");
+        } else if(ingestMode.equals("write-behind")) {
+            throw new IllegalArgumentException("socialmedia.ingest.mode=write-behind cannot be combined with socialmedia.messages.shards.");
+        } else if(webApplicationType.equalsIgnoreCase("reactive")) {
+            throw new IllegalArgumentException("spring.main.web-application-type=reactive cannot be combined with socialmedia.messages.shards.");
+        } else if(!properties.determineUrl().startsWith("jdbc:h2:mem:") && urlPattern.startsWith("jdbc:h2:mem:")) {
+            throw new IllegalArgumentException("The primary database is not in memory, so socialmedia.messages.shard-url must not be either,"
+                    + " or messages would be lost on restart.");
+        }
+        this.primary = jdbcTemplate;
+        this.followRepository = followRepository;
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(shardCount, task -> {
+            Thread thread = new Thread(task, "message-shard-" + threads.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for(int i = 0; i < shardCount; i++) {
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setDriverClassName(properties.determineDriverClassName());
+            dataSource.setJdbcUrl(String.format(urlPattern, i));
+            dataSource.setUsername(properties.determineUsername());
+            dataSource.setPassword(properties.determinePassword());
+            dataSource.setPoolName("message-shard-" + i);
+            dataSources.add(dataSource);
+            shards.add(new NamedParameterJdbcTemplate(dataSource));
+            shardTransactions.add(new TransactionTemplate(new DataSourceTransactionManager(dataSource)));
+        }
+        createSchema();
+    }
+
+    private void createSchema() {
+        firstRoutedId = Integer.MAX_VALUE;
+        for(int i = 0; i < shards.size(); i++) {
+            JdbcTemplate shard = shards.get(i).getJdbcTemplate();
+            created |= shard.queryForObject("SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_SCHEMA = SCHEMA()"
+                    + " AND TABLE_NAME = 'MESSAGE'", Integer.class) == 0;
+            shard.execute("CREATE TABLE IF NOT EXISTS message (messageId int primary key, postedBy int, "
+                    + "messageText varchar(255), timePostedEpoch bigint)");
+            // Replaces the ascending index of earlier versions, which newest-first pages could not read in order.
+            shard.execute("DROP INDEX IF EXISTS message_postedBy_timePostedEpoch_idx");
+            shard.execute("CREATE INDEX IF NOT EXISTS message_postedBy_newest_idx ON message (postedBy, timePostedEpoch DESC, messageId DESC)");
+            shard.execute("CREATE SEQUENCE IF NOT EXISTS message_seq START WITH " + (shards.size() + i) + " INCREMENT BY " + shards.size());
+            Map<String, Object> sequence = shard.queryForMap("SELECT START_VALUE, INCREMENT FROM INFORMATION_SCHEMA.SEQUENCES"
+                    + " WHERE SEQUENCE_NAME = 'MESSAGE_SEQ'");
+            if(((Number) sequence.get("INCREMENT")).intValue() != shards.size()) {
+                throw new IllegalStateException("Message shard " + i + " was created for " + sequence.get("INCREMENT")
+                        + " shards, not " + shards.size() + ".");
+            }
+            firstRoutedId = Math.min(firstRoutedId, ((Number) sequence.get("START_VALUE")).intValue() - i);
+        }
+    }
+
+    /**
+     *  Imports the primary database's messages if the shard tables were just created, i.e. on first start. Shards
+     *  that already existed are left as they are, even if every message on them has since been deleted.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        if(created) {
+            importMessages();
+        }
+    }
+
+    /**
+     *  Copies every message in the primary database's message table to its shard, replacing any copy already
+     *  there, and restarts the shard sequences above the highest ID now stored. Not safe to run while messages
+     *  are being created.
+     */
+    public void importMessages() {
+        List<List<Object[]>> batches = new ArrayList<>();
+        shards.forEach(shard -> batches.add(new ArrayList<>()));
+        primary.query("SELECT " + COLUMNS + " FROM message", row -> {
+            Integer postedBy = row.getObject(2, Integer.class);
+            int shard = shardOf(postedBy);
+            List<Object[]> batch = batches.get(shard);
+            batch.add(new Object[] {row.getInt(1), postedBy, row.getString(3), row.getObject(4, Long.class)});
+            if(batch.size() == IMPORT_BATCH) {
+                shards.get(shard).getJdbcTemplate().batchUpdate(UPSERT, batch);
+                batch.clear();
+            }
+        });
+        for(int i = 0; i < shards.size(); i++) {
+            shards.get(i).getJdbcTemplate().batchUpdate(UPSERT, batches.get(i));
+        }
+        int maxId = scatter(shard -> shards.get(shard).getJdbcTemplate().queryForObject("SELECT COALESCE(MAX(messageId), 0) FROM message", Integer.class))
+                .stream().mapToInt(Integer::intValue).max().orElse(0);
+        int base = (Math.max(maxId, 0) / shards.size() + 1) * shards.size();
+        for(int i = 0; i < shards.size(); i++) {
+            JdbcTemplate shard = shards.get(i).getJdbcTemplate();
+            shard.execute("DROP SEQUENCE message_seq");
+            shard.execute("CREATE SEQUENCE message_seq START WITH " + (base + i) + " INCREMENT BY " + shards.size());
+        }
+        firstRoutedId = base;
+    }
+
+    @PreDestroy
+    public void close() {
+        executor.shutdown();
+        dataSources.forEach(HikariDataSource::close);
+    }
+
+    /**
+     *  @return The index of the shard that holds the account's messages. Messages without an author, which can
+     *          only come from the primary database, are kept on shard 0.
+     */
+    public int shardOf(Integer accountId) {
+        if(accountId == null) {
+            return 0;
+        }
+        // Spread sequential account IDs before reducing, so that no shard count lines up with a pattern in them.
+        int hash = accountId * 0x9E3779B9;
+        return Math.floorMod(hash ^ (hash >>> 16), shards.size());
+    }
+
+    /**
+     *  @return The index of the shard that holds the message, or -1 if it was imported and may be on any shard.
+     */
+    private int shardOfMessage(int messageId) {
+        return messageId >= firstRoutedId ? messageId % shards.size() : -1;
+    }
+
+    /**
+     *  Groups message IDs by the shard that holds them. IDs whose shard is unknown are listed under every shard.
+     */
+    private Map<Integer, List<Integer>> byShard(Iterable<Integer> messageIds) {
+        Map<Integer, List<Integer>> grouped = new HashMap<>();
+        for(Integer messageId : new LinkedHashSet<>(toList(messageIds))) {
+            int shard = shardOfMessage(messageId);
+            if(shard >= 0) {
+                grouped.computeIfAbsent(shard, key -> new ArrayList<>()).add(messageId);
+            } else {
+                for(int i = 0; i < shards.size(); i++) {
+                    grouped.computeIfAbsent(i, key -> new ArrayList<>()).add(messageId);
+                }
+            }
+        }
+        return grouped;
+    }
+
+    /**
+     *  Runs work against every shard in parallel.
+     *  @return The result from each shard, by shard index.
+     */
+    private <T> List<T> scatter(IntFunction<T> work) {
+        List<Integer> all = new ArrayList<>(shards.size());
+        for(int i = 0; i < shards.size(); i++) {
+            all.add(i);
+        }
+        return scatter(all, work);
+    }
+
+    /**
+     *  Runs work against the given shards, in parallel if there is more than one.
+     *  @return The result from each shard, in the order the shards were given.
+     */
+    private <T> List<T> scatter(Collection<Integer> shardIndexes, IntFunction<T> work) {
+        if(shardIndexes.size() == 1) {
+            return List.of(work.apply(shardIndexes.iterator().next()));
+        }
+        List<CompletableFuture<T>> futures = new ArrayList<>(shardIndexes.size());
+        for(int shard : shardIndexes) {
+            futures.add(CompletableFuture.supplyAsync(() -> work.apply(shard), executor));
+        }
+        List<T> results = new ArrayList<>(futures.size());
+        for(CompletableFuture<T> future : futures) {
+            try {
+                results.add(future.join());
+            } catch(CompletionException ex) {
+                throw ex.getCause() instanceof RuntimeException ? (RuntimeException) ex.getCause() : ex;
+            }
+        }
+        return results;
+    }
+
+    /**
+     *  Merges lists that are each sorted by order into one sorted list of at most limit elements.
+     */
+    private static <T> List<T> merge(List<List<T>> sorted, Comparator<? super T> order, long limit) {
+        List<T> merged = new ArrayList<>();
+        Iterator<T> iterator = merge(sorted.stream().map(List::iterator).collect(Collectors.toList()), order);
+        while(iterator.hasNext() && merged.size() < limit) {
+            merged.add(iterator.next());
+        }
+        return merged;
+    }
+
+    /**
+     *  @return An iterator over the elements of iterators that are each sorted by order, in that order.
+     *          Each source is read only as far as the merge has got.
+     */
+    private static <T> Iterator<T> merge(List<Iterator<T>> sorted, Comparator<? super T> order) {
+        final class Head {
+            private final Iterator<T> source;
+            private T value;
+
+            private Head(Iterator<T> source) {
+                this.source = source;
+                this.value = source.next();
+            }
+        }
+        PriorityQueue<Head> heads = new PriorityQueue<>(Math.max(1, sorted.size()), (a, b) -> order.compare(a.value, b.value));
+        sorted.stream().filter(Iterator::hasNext).map(Head::new).forEach(heads::add);
+        return new Iterator<T>() {
+            @Override
+            public boolean hasNext() {
+                return !heads.isEmpty();
+            }
+
+            @Override
+            public T next() {
+                Head head = heads.poll();
+                if(head == null) {
+                    throw new NoSuchElementException();
+                }
+                T value = head.value;
+                if(head.source.hasNext()) {
+                    head.value = head.source.next();
+                    heads.add(head);
+                }
+                return value;
+            }
+        };
+    }
+
+    /**
+     *  @return The first rows of the merged shard results, after skipping the page's offset.
+     */
+    private static <T> List<T> page(List<List<T>> sorted, Comparator<? super T> order, Pageable pageable) {
+        List<T> merged = merge(sorted, order, pageable.getOffset() + pageable.getPageSize());
+        return merged.subList((int) Math.min(merged.size(), pageable.getOffset()), merged.size());
+    }
+
+    /**
+     *  @return The number of rows each shard must return for a merged page to be complete.
+     */
+    private static long rows(Pageable pageable) {
+        return pageable.getOffset() + pageable.getPageSize();
+    }
+
+    @Override
+    public <S extends Message> S save(S message) {
+        return saveAll(List.of(message)).get(0);
+    }
+
+    /**
+     *  Inserts the messages as new ones. Each gets an ID from its author's shard, replacing any it already had, since
+     *  an ID chosen elsewhere would not say which shard holds the message. Messages for the same shard are written
+     *  in one batch and transaction; the shards are written in parallel.
+     *  @return The same messages, with their messageIds set.
+     */
+    @Override
+    public <S extends Message> List<S> saveAll(Iterable<S> messages) {
+        List<S> all = toList(messages);
+        Map<Integer, List<S>> grouped = all.stream().collect(Collectors.groupingBy(message -> shardOf(message.getPostedBy())));
+        scatter(grouped.keySet(), shard -> {
+            List<S> batch = grouped.get(shard);
+            return shardTransactions.get(shard).execute(status -> {
+                JdbcTemplate template = shards.get(shard).getJdbcTemplate();
+                List<Integer> ids = template.queryForList("SELECT NEXT VALUE FOR message_seq FROM SYSTEM_RANGE(1, ?)", Integer.class, batch.size());
+                for(int i = 0; i < batch.size(); i++) {
+                    batch.get(i).setMessageId(ids.get(i));
+                }
+                return template.batchUpdate(INSERT, batch, batch.size(), (statement, message) -> {
+                    statement.setInt(1, message.getMessageId());
+                    statement.setObject(2, message.getPostedBy(), Types.INTEGER);
+                    statement.setString(3, message.getMessageText());
+                    statement.setObject(4, message.getTimePostedEpoch(), Types.BIGINT);
+                });
+            });
+        });
+        return all;
+    }
+
+    @Override
+    public Optional<Message> findById(Integer messageId) {
+        List<Message> found = findAllById(List.of(messageId));
+        return found.isEmpty() ? Optional.empty() : Optional.of(found.get(0));
+    }
+
+    /**
+     *  @return The messages found, ordered by messageId.
+     */
+    @Override
+    public List<Message> findAllById(Iterable<Integer> messageIds) {
+        return findByIds(messageIds, "SELECT " + COLUMNS + " FROM message WHERE messageId IN (:ids) ORDER BY messageId", MESSAGE, BY_ID);
+    }
+
+    @Override
+    public List<MessageView> findViewsByMessageIdIn(Collection<Integer> messageIds) {
+        return findByIds(messageIds, "SELECT " + COLUMNS + " FROM message WHERE messageId IN (:ids) ORDER BY messageId", VIEW,
+                Comparator.comparing(MessageView::getMessageId));
+    }
+
+    private <T> List<T> findByIds(Iterable<Integer> messageIds, String sql, RowMapper<T> mapper, Comparator<T> order) {
+        Map<Integer, List<Integer>> grouped = byShard(messageIds);
+        if(grouped.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return merge(scatter(grouped.keySet(), shard -> shards.get(shard).query(sql, Map.of("ids", grouped.get(shard)), mapper)),
+                order, Long.MAX_VALUE);
+    }
+
+    @Override
+    public List<MessageView> findAllViews() {
+        return merge(scatter(shard -> shards.get(shard).getJdbcTemplate().query("SELECT " + COLUMNS + " FROM message ORDER BY messageId", VIEW)),
+                Comparator.comparing(MessageView::getMessageId), Long.MAX_VALUE);
+    }
+
+    @Override
+    public List<Message> findMessagesAfter(int messageId, Pageable pageable) {
+        return page(scatter(shard -> shards.get(shard).getJdbcTemplate().query(
+                "SELECT " + COLUMNS + " FROM message WHERE messageId > ? ORDER BY messageId LIMIT ?", MESSAGE, messageId, rows(pageable))),
+                BY_ID, pageable);
+    }
+
+    @Override
+    public List<MessageView> findViewsByPostedBy(int accountId) {
+        return shards.get(shardOf(accountId)).getJdbcTemplate().query(
+                "SELECT " + COLUMNS + " FROM message WHERE postedBy = ? ORDER BY messageId", VIEW, accountId);
+    }
+
+    @Override
+    public List<Message> findLatestByPostedBy(int accountId, Pageable pageable) {
+        return findLatestByPostedByBefore(accountId, Long.MAX_VALUE, Integer.MAX_VALUE, pageable);
+    }
+
+    @Override
+    public List<Message> findLatestByPostedByBefore(int accountId, long timePostedEpoch, int messageId, Pageable pageable) {
+        NamedParameterJdbcTemplate shard = shards.get(shardOf(accountId));
+        List<Message> messages = new ArrayList<>(pageable.getPageSize());
+        int untimedBefore = messageId;
+        if(timePostedEpoch != NO_TIME) {
+            messages.addAll(shard.query("SELECT " + COLUMNS + " FROM message WHERE postedBy = :author" + TIMED_BEFORE + NEWER_FIRST + " LIMIT :limit",
+                    Map.of("author", accountId, "time", timePostedEpoch, "id", messageId, "limit", pageable.getPageSize()), MESSAGE));
+            untimedBefore = Integer.MAX_VALUE;
+        }
+        if(messages.size() < pageable.getPageSize()) {
+            messages.addAll(shard.query("SELECT " + COLUMNS + " FROM message WHERE postedBy = :author" + UNTIMED_BEFORE + NEWER_FIRST + " LIMIT :limit",
+                    Map.of("author", accountId, "id", untimedBefore, "limit", pageable.getPageSize() - messages.size()), MESSAGE));
+        }
+        return messages;
+    }
+
+    /**
+     *  Reads the account's follows from the primary database, then has each shard holding one of the authors read
+     *  a page per author, as findLatestByPostedByBefore does, and merges the pages.
+     */
+    @Override
+    public List<Message> findTimelineBefore(int accountId, long timePostedEpoch, int messageId, Pageable pageable) {
+        Set<Integer> authors = new LinkedHashSet<>(followRepository.findFollowedIds(accountId));
+        authors.add(accountId);
+        Map<Integer, List<Integer>> grouped = authors.stream().collect(Collectors.groupingBy(this::shardOf));
+        Pageable first = PageRequest.of(0, pageable.getPageSize());
+        return page(scatter(grouped.keySet(), shard -> {
+            List<Message> messages = new ArrayList<>();
+            for(int authorId : grouped.get(shard)) {
+                messages.addAll(findLatestByPostedByBefore(authorId, timePostedEpoch, messageId, first));
+            }
+            messages.sort(NEWEST_FIRST);
+            return messages;
+        }), NEWEST_FIRST, first);
+    }
+
+    /**
+     *  @return Every message, ordered by messageId, read through one cursor per shard. Closing the stream
+     *          releases the cursors.
+     */
+    @Override
+    public Stream<Message> streamAllMessages() {
+        return stream(MESSAGE, BY_ID);
+    }
+
+    @Override
+    public Stream<MessageView> streamAllViews() {
+        return stream(VIEW, Comparator.comparing(MessageView::getMessageId));
+    }
+
+    private <T> Stream<T> stream(RowMapper<T> mapper, Comparator<T> order) {
+        List<Stream<T>> cursors = new ArrayList<>(shards.size());
+        try {
+            for(NamedParameterJdbcTemplate shard : shards) {
+                JdbcTemplate template = new JdbcTemplate(shard.getJdbcTemplate().getDataSource());
+                template.setFetchSize(500);
+                cursors.add(template.queryForStream("SELECT " + COLUMNS + " FROM message ORDER BY messageId", mapper));
+            }
+        } catch(RuntimeException ex) {
+            cursors.forEach(Stream::close);
+            throw ex;
+        }
+        Iterator<T> merged = merge(cursors.stream().map(Stream::iterator).collect(Collectors.toList()), order);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(merged, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(() -> cursors.forEach(Stream::close));
+    }
+
+    @Override
+    public List<Integer> deleteReturningAuthors(Collection<Integer> messageIds) {
+        Map<Integer, List<Integer>> grouped = byShard(messageIds);
+        if(grouped.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return scatter(grouped.keySet(), shard -> shards.get(shard).queryForList("SELECT postedBy FROM OLD TABLE"
+                + " (DELETE FROM message WHERE messageId IN (:ids))", Map.of("ids", grouped.get(shard)), Integer.class))
+                .stream().flatMap(List::stream).collect(Collectors.toList());
+    }
+
+    @Override
+    public int deleteByPostedBy(int accountId) {
+        return shards.get(shardOf(accountId)).getJdbcTemplate().update("DELETE FROM message WHERE postedBy = ?", accountId);
+    }
+
+    @Override
+    public List<Integer> updateMessageTextReturningAuthors(String messageText, int messageId) {
+        int shard = shardOfMessage(messageId);
+        Function<NamedParameterJdbcTemplate, List<Integer>> update = template -> template.getJdbcTemplate().queryForList(
+                "SELECT postedBy FROM FINAL TABLE (UPDATE message SET messageText = ? WHERE messageId = ?)", Integer.class, messageText, messageId);
+        if(shard >= 0) {
+            return update.apply(shards.get(shard));
+        }
+        return scatter(index -> update.apply(shards.get(index))).stream().flatMap(List::stream).collect(Collectors.toList());
+    }
+
+    private static <T> List<T> toList(Iterable<T> iterable) {
+        List<T> list = new ArrayList<>();
+        iterable.forEach(list::add);
+        return list;
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.service;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.repository.AccountRepository;
+
+/**
+ * The IDs of all registered accounts, kept in memory as primitive ints so that posting a message can check its
+ * author without a database read.
+ *
+ * An open-addressing hash set with linear probing: 0 marks an empty slot (account IDs start at 1), and the table
+ * doubles once it is half full. Lookups are lock-free; additions are serialized, and a resized table is only
+ * published once complete. An ID the set does not hold (before it has been warmed, or for an account created
+ * outside this process) is looked up in the database, and remembered if it exists.
+ */
+@Component
+public class AccountIdSet {
+    private final AccountRepository accountRepository;
+    private volatile AtomicIntegerArray table;
+    private int size;
+
+    /**
+     *  @param  accountRepository   The repository used to load existing account IDs and to check unknown ones.
+     *  @param  expectedAccounts    The number of accounts the initial table is sized for.
+     */
+    @Autowired
+    public AccountIdSet(AccountRepository accountRepository,
+            @Value("${socialmedia.accounts.id-set.expected-accounts:1024}") int expectedAccounts) {
+        this.accountRepository = accountRepository;
+        this.table = new AtomicIntegerArray(Integer.highestOneBit(Math.max(expectedAccounts, 8) * 2 - 1) * 2);
+    }
+
+    /**
+     *  Loads every existing account ID once the application has started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void warm() {
+        try(IntStream accountIds = accountRepository.streamAllAccountIds().mapToInt(Integer::intValue)) {
+            accountIds.forEach(this::add);
+        }
+    }
+
+    /**
+     *  @param  accountId   The account ID to check.
+     *  @return true if an account with this ID exists.
+     */
+    public boolean exists(Integer accountId) {
+        if(accountId == null || accountId <= 0) {
+            return false;
+        } else if(contains(accountId)) {
+            return true;
+        } else if(!accountRepository.existsById(accountId)) {
+            return false;
+        }
+        add(accountId);
+        return true;
+    }
+
+    /**
+     *  @return true if the ID is held in memory. Unlike exists, never reads the database.
+     */
+    public boolean contains(int accountId) {
+        if(accountId <= 0) {
+            return false;
+        }
+        AtomicIntegerArray slots = table;
+        int mask = slots.length() - 1;
+        for(int slot = mix(accountId) & mask; ; slot = (slot + 1) & mask) {
+            int value = slots.get(slot);
+            if(value == accountId) {
+                return true;
+            } else if(value == 0) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     *  @param  accountId   The ID of an account that has been created.
+     */
+    public synchronized void add(int accountId) {
+        if(accountId <= 0 || contains(accountId)) {
+            return;
+        }
+        if((size + 1) * 2 > table.length()) {
+            AtomicIntegerArray resized = new AtomicIntegerArray(table.length() * 2);
+            for(int i = 0; i < table.length(); i++) {
+                int value = table.get(i);
+                if(value != 0) {
+                    insert(resized, value);
+                }
+            }
+            table = resized;
+        }
+        insert(table, accountId);
+        size++;
+    }
+
+    private static void insert(AtomicIntegerArray slots, int accountId) {
+        int mask = slots.length() - 1;
+        int slot = mix(accountId) & mask;
+        while(slots.get(slot) != 0) {
+            slot = (slot + 1) & mask;
+        }
+        slots.set(slot, accountId);
+    }
+
+    /**
+     *  Spreads sequential IDs across the table (the MurmurHash3 32-bit finalizer).
+     */
+    private static int mix(int value) {
+        value ^= value >>> 16;
+        value *= 0x85ebca6b;
+        value ^= value >>> 13;
+        value *= 0xc2b2ae35;
+        value ^= value >>> 16;
+        return value;
+    }
+}
@@ -1,26 +1,45 @@
 package com.example.service;
 
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
+import com.example.config.CredentialExecutorConfig;
 import com.example.entity.Account;
 import com.example.exception.BadRequestException;
 import com.example.exception.DuplicateUsernameException;
+import com.example.exception.ServiceUnavailableException;
 import com.example.exception.UnauthorizedException;
 import com.example.repository.AccountRepository;
 
 @Service
 public class AccountService {
     private AccountRepository accountRepository;
+    private UsernameFilter usernameFilter;
+    private AccountIdSet accountIds;
+    private PasswordHasher passwordHasher;
+    private Executor credentialExecutor;
 
     @Autowired
-    public AccountService(AccountRepository accountRepository) {
+    public AccountService(AccountRepository accountRepository, UsernameFilter usernameFilter, AccountIdSet accountIds,
+            PasswordHasher passwordHasher, @Qualifier(CredentialExecutorConfig.CREDENTIAL_EXECUTOR) Executor credentialExecutor) {
         this.accountRepository = accountRepository;
+        this.usernameFilter = usernameFilter;
+        this.accountIds = accountIds;
+        this.passwordHasher = passwordHasher;
+        this.credentialExecutor = credentialExecutor;
     }
 
     /**
      *  @param  account The new account to be registered, not including accountId.
-     *  @return The newly registered account, including its generated accountId. 
+     *  @return The newly registered account, including its generated accountId. Only a salted hash of the password
+     *          is stored; the returned account carries the password as it was submitted.
      *  @throws DuplicateUsernameException When the given account's username already belongs to an account within the database.
      *  @throws BadRequestException When the given account's username is blank or the password is less than 4 characters.
      */
@@ -29,24 +48,81 @@ public class AccountService {
             throw new BadRequestException("Username must not be blank.");
         } else if(account.getPassword().length() < 4) {
             throw new BadRequestException("Password must be at least 4 characters.");
-        } else if(accountRepository.findAccountByUsername(account.getUsername()) != null) {
-            throw new DuplicateUsernameException("An account with that username already exists. Please try a different username.");
-        } else {
-            return accountRepository.save(account);
+        } else if(usernameFilter.mightContain(account.getUsername())
+                && accountRepository.findAccountByUsername(account.getUsername()) != null) {
+            throw duplicateUsername();
+        }
+        // The unique constraint on username settles any race the lookup above cannot see.
+        Account registered;
+        try {
+            registered = accountRepository.save(new Account(account.getUsername(), passwordHasher.hash(account.getPassword())));
+        } catch(DataIntegrityViolationException ex) {
+            throw duplicateUsername();
         }
+        usernameFilter.add(registered.getUsername());
+        accountIds.add(registered.getAccountId());
+        return new Account(registered.getAccountId(), registered.getUsername(), account.getPassword());
     }
 
     /**
      *  @param  account The account attempting to log in, not including accountId.
-     *  @return The verified account, including accountId.
+     *  @return The verified account, including accountId, carrying the password as it was submitted.
      *  @throws UnauthorizedException When the login is unsuccessful (invalid username/password combination).
      */
     public Account verifyLogin(Account account) throws UnauthorizedException {
-        Account existingAccount = accountRepository.findAccountByUsernameAndPassword(account.getUsername(), account.getPassword());
-        if(existingAccount != null) {
-            return existingAccount;
-        } else {
+        String password = account.getPassword() == null ? "" : account.getPassword();
+        Account existingAccount = accountRepository.findAccountByUsername(account.getUsername());
+        if(existingAccount == null) {
+            passwordHasher.matchesUnknownAccount(password);
+            throw new UnauthorizedException("Invalid username/password combination.");
+        } else if(!passwordHasher.matches(password, existingAccount.getPassword())) {
             throw new UnauthorizedException("Invalid username/password combination.");
         }
+        if(passwordHasher.needsRehash(existingAccount.getPassword())) {
+            existingAccount.setPassword(passwordHasher.hash(password));
+            accountRepository.save(existingAccount);
+        }
+        return new Account(existingAccount.getAccountId(), existingAccount.getUsername(), password);
+    }
+
+    /**
+     *  Runs registerAccount on the bounded credential executor, so password hashing never ties up request threads.
+     *  @param  account The new account to be registered, not including accountId.
+     *  @return A future completed with the registered account, or failed with DuplicateUsernameException or
+     *          BadRequestException as registerAccount would throw, or with ServiceUnavailableException when too many
+     *          registrations and logins are already queued.
+     */
+    public CompletableFuture<Account> registerAccountAsync(Account account) {
+        return onCredentialExecutor(() -> registerAccount(account), "Too many registrations in progress. Please try again shortly.");
+    }
+
+    /**
+     *  Runs verifyLogin on the bounded credential executor, so password hashing never ties up request threads.
+     *  @param  account The account attempting to log in, not including accountId.
+     *  @return A future completed with the verified account, or failed with UnauthorizedException when the login
+     *          is unsuccessful, or with ServiceUnavailableException when too many logins are already queued.
+     */
+    public CompletableFuture<Account> verifyLoginAsync(Account account) {
+        return onCredentialExecutor(() -> verifyLogin(account), "Too many login attempts in progress. Please try again shortly.");
+    }
+
+    private CompletableFuture<Account> onCredentialExecutor(Callable<Account> task, String rejectedMessage) {
+        CompletableFuture<Account> result = new CompletableFuture<>();
+        try {
+            credentialExecutor.execute(() -> {
+                try {
+                    result.complete(task.call());
+                } catch(Exception ex) {
+                    result.completeExceptionally(ex);
+                }
+            });
+        } catch(TaskRejectedException ex) {
+            result.completeExceptionally(new ServiceUnavailableException(rejectedMessage));
+        }
+        return result;
+    }
+
+    private static DuplicateUsernameException duplicateUsername() {
+        return new DuplicateUsernameException("An account with that username already exists. Please try a different username.");
     }
 }
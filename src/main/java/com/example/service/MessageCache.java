@@ -0,0 +1,84 @@
+package com.example.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.IntFunction;
+
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import com.example.config.CacheConfig;
+import com.example.entity.Message;
+import com.github.benmanes.caffeine.cache.Cache;
+
+/**
+ * Messages by messageId, in the Caffeine cache that spring.cache.* configures as CacheConfig.MESSAGE_CACHE.
+ *
+ * A plain evict-after-commit leaves a race: a read that loaded the old row before the commit can store it after the
+ * eviction, where it would stay until it expires. So every eviction also bumps a write generation, and a read only
+ * stores what it loaded if the generation is unchanged since before the load began; if it has moved, a write
+ * committed meanwhile and the row read may be the old one. The check and the store happen together under the
+ * cache's lock for the key, so an eviction either comes after the store and removes it, or before and prevents it.
+ *
+ * Generations are kept per stripe of messageIds, so writes to other messages rarely stop a read from being cached.
+ */
+@Component
+public class MessageCache {
+    private static final int STRIPES = 1024;
+
+    private final Cache<Object, Object> cache;
+    private final AtomicLongArray generations = new AtomicLongArray(STRIPES);
+    private final AtomicLong allGeneration = new AtomicLong();
+
+    @SuppressWarnings("unchecked")
+    public MessageCache(CacheManager cacheManager) {
+        this.cache = (Cache<Object, Object>) cacheManager.getCache(CacheConfig.MESSAGE_CACHE).getNativeCache();
+    }
+
+    /**
+     *  @param  messageId   The ID of the message to be read.
+     *  @param  loader      Reads the message from the database, returning null if it does not exist.
+     *  @return The cached message, or the one loaded. Misses are not cached, so a later insert is visible at once.
+     */
+    public Message get(int messageId, IntFunction<Message> loader) {
+        Message cached = (Message) cache.getIfPresent(messageId);
+        if(cached != null) {
+            return cached;
+        }
+        long generation = generation(messageId);
+        Message loaded = loader.apply(messageId);
+        if(loaded != null) {
+            cache.asMap().compute(messageId, (key, existing) -> generation(messageId) == generation ? loaded : existing);
+        }
+        return loaded;
+    }
+
+    /**
+     *  Drops the message once the current transaction has committed (at once outside one).
+     */
+    public void evict(int messageId) {
+        AfterCommit.run(() -> {
+            generations.incrementAndGet(stripe(messageId));
+            cache.invalidate(messageId);
+        });
+    }
+
+    /**
+     *  Drops every message once the current transaction has committed (at once outside one).
+     */
+    public void evictAll() {
+        AfterCommit.run(() -> {
+            allGeneration.incrementAndGet();
+            cache.invalidateAll();
+        });
+    }
+
+    private long generation(int messageId) {
+        // Both counters only grow, so their sum changes whenever either does.
+        return generations.get(stripe(messageId)) + allGeneration.get();
+    }
+
+    private static int stripe(int messageId) {
+        return messageId & (STRIPES - 1);
+    }
+}
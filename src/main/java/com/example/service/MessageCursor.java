@@ -0,0 +1,70 @@
+package com.example.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import com.example.exception.BadRequestException;
+import com.example.repository.MessageStore;
+
+/**
+ * Encodes and decodes the opaque cursors handed out by paginated message endpoints.
+ * A cursor holds the sort keys of the last message on a page, so the next page can be
+ * fetched with a keyset predicate instead of an OFFSET.
+ */
+final class MessageCursor {
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+    /**
+     * The time key of a message posted without a timePostedEpoch. Such messages sort as the oldest, matching where
+     * the database places NULL times in descending order.
+     */
+    static final long NO_TIME = MessageStore.NO_TIME;
+
+    private MessageCursor() {
+    }
+
+    /**
+     *  @param  keys The sort keys of the last message on the current page.
+     *  @return An opaque, URL-safe cursor representing the given keys.
+     */
+    static String encode(long... keys) {
+        StringBuilder builder = new StringBuilder();
+        for(int i = 0; i < keys.length; i++) {
+            if(i > 0) {
+                builder.append(':');
+            }
+            builder.append(keys[i]);
+        }
+        return ENCODER.encodeToString(builder.toString().getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     *  @param  timePostedEpoch A message's time, which may be null.
+     *  @return The time as a sort key: the time itself, or NO_TIME if it is null.
+     */
+    static long timeKey(Long timePostedEpoch) {
+        return timePostedEpoch == null ? NO_TIME : timePostedEpoch;
+    }
+
+    /**
+     *  @param  cursor       A cursor previously returned by {@link #encode(long...)}.
+     *  @param  expectedKeys The number of sort keys the cursor must contain.
+     *  @return The sort keys held by the cursor.
+     *  @throws BadRequestException When the cursor is malformed or holds the wrong number of keys.
+     */
+    static long[] decode(String cursor, int expectedKeys) throws BadRequestException {
+        try {
+            String[] parts = new String(DECODER.decode(cursor), StandardCharsets.US_ASCII).split(":");
+            if(parts.length != expectedKeys) {
+                throw new BadRequestException("Invalid cursor.");
+            }
+            long[] keys = new long[expectedKeys];
+            for(int i = 0; i < expectedKeys; i++) {
+                keys[i] = Long.parseLong(parts[i]);
+            }
+            return keys;
+        } catch(IllegalArgumentException ex) {
+            throw new BadRequestException("Invalid cursor.");
+        }
+    }
+}
@@ -0,0 +1,317 @@
+package com.example.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.dto.MessageView;
+import com.example.repository.MessageStore;
+
+/**
+ * An in-memory inverted index over message text, answering keyword searches without scanning the message table.
+ *
+ * Text is split into lower-cased runs of letters and digits. Each distinct word maps to a postings list: the IDs of
+ * the messages containing it, kept sorted in a primitive int array. Every indexed message also records its author,
+ * time and word IDs, so that an update or delete can remove exactly the postings it added. A search intersects the
+ * postings of its words, starting from the shortest, and keeps the most recent matches in a bounded heap.
+ *
+ * The index is loaded once the application has started, and MessageService keeps it current as messages are
+ * posted, edited and deleted; each change is applied once its transaction has committed. Searches and changes are
+ * serialized by a read-write lock; searches made before the initial load has finished are refused. The load builds
+ * a separate index without the lock, so changes are not held up for its whole length: those that arrive meanwhile
+ * are queued and replayed once it is swapped in.
+ */
+@Component
+public class MessageSearchIndex {
+    private final MessageStore messageRepository;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Index index = new Index();
+    private List<Runnable> pending = new ArrayList<>();
+    private volatile boolean ready;
+
+    /**
+     * The words, postings and documents of every indexed message. Guarded by the lock once it is in use.
+     */
+    private static final class Index {
+        private final Map<String, Integer> termIds = new HashMap<>();
+        private final List<Postings> postings = new ArrayList<>();
+        private final Map<Integer, Document> documents = new HashMap<>();
+
+        private void add(int messageId, Integer postedBy, String messageText, Long timePostedEpoch) {
+            remove(messageId);
+            Set<String> words = tokenize(messageText);
+            int[] terms = new int[words.size()];
+            int i = 0;
+            for(String word : words) {
+                int termId = termIds.computeIfAbsent(word, w -> {
+                    postings.add(new Postings());
+                    return postings.size() - 1;
+                });
+                postings.get(termId).add(messageId);
+                terms[i++] = termId;
+            }
+            documents.put(messageId, new Document(postedBy, MessageCursor.timeKey(timePostedEpoch), terms));
+        }
+
+        private void remove(int messageId) {
+            Document document = documents.remove(messageId);
+            if(document != null) {
+                for(int termId : document.terms) {
+                    postings.get(termId).remove(messageId);
+                }
+            }
+        }
+    }
+
+    /**
+     * What the index remembers about one message.
+     */
+    private static final class Document {
+        private final Integer postedBy; // null if the message has no author
+        private final long timePostedEpoch; // MessageCursor.NO_TIME if the message has none
+        private final int[] terms;
+
+        private Document(Integer postedBy, long timePostedEpoch, int[] terms) {
+            this.postedBy = postedBy;
+            this.timePostedEpoch = timePostedEpoch;
+            this.terms = terms;
+        }
+    }
+
+    /**
+     * The sorted IDs of the messages containing one word.
+     */
+    private static final class Postings {
+        private int[] ids = new int[4];
+        private int size;
+
+        private void add(int id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if(index >= 0) {
+                return;
+            }
+            index = -index - 1;
+            if(size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, index, ids, index + 1, size - index);
+            ids[index] = id;
+            size++;
+        }
+
+        private void remove(int id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if(index < 0) {
+                return;
+            }
+            System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+            size--;
+            if(size > 4 && size * 4 <= ids.length) {
+                ids = Arrays.copyOf(ids, ids.length / 2);
+            }
+        }
+
+        private boolean contains(int id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+    }
+
+    public MessageSearchIndex(MessageStore messageRepository) {
+        this.messageRepository = messageRepository;
+    }
+
+    /**
+     *  Indexes every existing message once the application has started, replacing anything indexed before. Changes
+     *  committed meanwhile are queued until the load has finished and are then applied on top of it.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void warm() {
+        lock.writeLock().lock();
+        try {
+            if(pending == null) {
+                pending = new ArrayList<>();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        Index loaded = new Index();
+        try(Stream<MessageView> messages = messageRepository.streamAllViews()) {
+            messages.forEach(message -> loaded.add(message.getMessageId(), message.getPostedBy(),
+                    message.getMessageText(), message.getTimePostedEpoch()));
+        }
+        lock.writeLock().lock();
+        try {
+            index = loaded;
+            pending.forEach(Runnable::run);
+            pending = null;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     *  @return true once the initial load has finished.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     *  @param  query   The words to search for.
+     *  @param  limit   The maximum number of message IDs to return.
+     *  @return The IDs of the messages containing every word of the query, newest first (by timePostedEpoch, then
+     *          messageId). Empty if the query has no words.
+     */
+    public int[] search(String query, int limit) {
+        Set<String> words = tokenize(query);
+        lock.readLock().lock();
+        try {
+            if(words.isEmpty()) {
+                return new int[0];
+            }
+            Postings[] lists = new Postings[words.size()];
+            int i = 0;
+            for(String word : words) {
+                Integer termId = index.termIds.get(word);
+                if(termId == null || index.postings.get(termId).size == 0) {
+                    return new int[0];
+                }
+                lists[i++] = index.postings.get(termId);
+            }
+            Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+            return mostRecent(lists, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int[] mostRecent(Postings[] lists, int limit) {
+        // A min-heap on recency, so the oldest of the best matches so far is the one replaced.
+        PriorityQueue<Integer> best = new PriorityQueue<>(limit, (a, b) -> compareRecency(a, b));
+        Postings shortest = lists[0];
+        candidates:
+        for(int i = 0; i < shortest.size; i++) {
+            int id = shortest.ids[i];
+            for(int list = 1; list < lists.length; list++) {
+                if(!lists[list].contains(id)) {
+                    continue candidates;
+                }
+            }
+            if(best.size() < limit) {
+                best.add(id);
+            } else if(compareRecency(id, best.peek()) > 0) {
+                best.poll();
+                best.add(id);
+            }
+        }
+        int[] ids = new int[best.size()];
+        for(int i = ids.length - 1; i >= 0; i--) {
+            ids[i] = best.poll();
+        }
+        return ids;
+    }
+
+    private int compareRecency(int a, int b) {
+        Map<Integer, Document> documents = index.documents;
+        int byTime = Long.compare(documents.get(a).timePostedEpoch, documents.get(b).timePostedEpoch);
+        return byTime != 0 ? byTime : Integer.compare(a, b);
+    }
+
+    /**
+     *  Adds a message to the index, or re-indexes it if it is already present.
+     *  @param  postedBy        The message's author, or null if it has none.
+     *  @param  timePostedEpoch The message's time, or null if it has none; such messages rank as the oldest.
+     */
+    public void add(int messageId, Integer postedBy, String messageText, Long timePostedEpoch) {
+        AfterCommit.run(() -> write(() -> index.add(messageId, postedBy, messageText, timePostedEpoch)));
+    }
+
+    /**
+     *  Re-indexes a message under its new text. Does nothing if the message is not indexed.
+     */
+    public void update(int messageId, String messageText) {
+        AfterCommit.run(() -> write(() -> {
+            Document document = index.documents.get(messageId);
+            if(document != null) {
+                index.add(messageId, document.postedBy, messageText, document.timePostedEpoch);
+            }
+        }));
+    }
+
+    /**
+     *  @param  messageIds  The IDs of messages to drop from the index. IDs that are not indexed are ignored.
+     */
+    public void remove(Collection<Integer> messageIds) {
+        AfterCommit.run(() -> write(() -> messageIds.forEach(index::remove)));
+    }
+
+    /**
+     *  @param  accountId   The ID of an account whose messages are all to be dropped from the index.
+     */
+    public void removeByAccount(int accountId) {
+        AfterCommit.run(() -> write(() -> {
+            // Account-wide deletes are rare moderation actions, so a scan is preferred to a per-account map.
+            List<Integer> messageIds = new ArrayList<>();
+            index.documents.forEach((id, document) -> {
+                if(document.postedBy != null && document.postedBy == accountId) {
+                    messageIds.add(id);
+                }
+            });
+            messageIds.forEach(index::remove);
+        }));
+    }
+
+    /**
+     *  Applies a change under the write lock, or queues it while a load is running.
+     */
+    private void write(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            if(pending != null) {
+                pending.add(change);
+            } else {
+                change.run();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     *  @param  text    The text to split into words.
+     *  @return The distinct lower-cased words of the text, in order of first appearance.
+     */
+    static Set<String> tokenize(String text) {
+        Set<String> words = new LinkedHashSet<>();
+        if(text == null) {
+            return words;
+        }
+        int start = -1;
+        for(int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if(wordChar && start < 0) {
+                start = i;
+            } else if(!wordChar && start >= 0) {
+                words.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return words;
+    }
+}
@@ -1,26 +1,79 @@
 package com.example.service;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Stream;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.example.dto.MessageBatchItem;
+import com.example.dto.MessagePage;
+import com.example.dto.MessageView;
 import com.example.entity.Message;
 import com.example.exception.BadRequestException;
+import com.example.exception.ServiceUnavailableException;
 import com.example.repository.AccountRepository;
-import com.example.repository.MessageRepository;
+import com.example.repository.MessageStore;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 
 @Service
 public class MessageService {
-    private MessageRepository messageRepository;
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
+    public static final int MAX_BATCH_SIZE = 1000;
+    private static final int EXPORT_FLUSH_INTERVAL = 500;
+
+    private MessageStore messageRepository;
     private AccountRepository accountRepository;
+    private AccountIdSet accountIds;
+    private MessageVersions versions;
+    private MessageCache messageCache;
+    private MessageSearchIndex searchIndex;
+    private TimelineService timelineService;
+    private ObjectMapper objectMapper;
+    private MessageWriteBehindQueue writeBehindQueue;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
+    /**
+     *  @param  writeBehindQueue    Present when socialmedia.ingest.mode=write-behind; addMessage then queues new
+     *                              messages for group-committed writes instead of saving each one itself.
+     */
     @Autowired
-    public MessageService(MessageRepository messageRepository, AccountRepository accountRepository) {
+    public MessageService(MessageStore messageRepository, AccountRepository accountRepository, AccountIdSet accountIds,
+            MessageVersions versions, MessageCache messageCache, MessageSearchIndex searchIndex, TimelineService timelineService,
+            ObjectMapper objectMapper, ObjectProvider<MessageWriteBehindQueue> writeBehindQueue) {
         this.messageRepository = messageRepository;
         this.accountRepository = accountRepository;
+        this.accountIds = accountIds;
+        this.versions = versions;
+        this.messageCache = messageCache;
+        this.searchIndex = searchIndex;
+        this.timelineService = timelineService;
+        this.objectMapper = objectMapper;
+        this.writeBehindQueue = writeBehindQueue.getIfAvailable();
     }
 
     /**
@@ -28,33 +81,151 @@ public class MessageService {
      *  @return The newly created message, including its generated messageId. 
      *  @throws BadRequestException When the given message's text is blank or has a length greater than 255.
      *                              Or when the user that the message is posted by does not exist.
+     *  @throws ServiceUnavailableException In write-behind mode, when the ingestion queue is full.
      */
-    public Message addMessage(Message message) throws BadRequestException {
-        if(message.getMessageText().isBlank()) {
-            throw new BadRequestException("Message text must not be blank.");
-        } else if(message.getMessageText().length() > 255) {
-            throw new BadRequestException("Message text must not exceed 255 characters.");
-        } else if(!accountRepository.findById(message.getPostedBy()).isPresent()) {
+    public Message addMessage(Message message) throws BadRequestException, ServiceUnavailableException {
+        String textError = messageTextError(message.getMessageText());
+        if(textError != null) {
+            throw new BadRequestException(textError);
+        } else if(!accountIds.exists(message.getPostedBy())) {
             throw new BadRequestException("User does not exist!");
-        } else {
-            return messageRepository.save(message);
+        } else if(writeBehindQueue != null) {
+            return enqueue(message);
+        }
+        // The ID is assigned here, never taken from the client, as in addMessages.
+        message.setMessageId(null);
+        Message created = messageRepository.save(message);
+        versions.accountChanged(created.getPostedBy());
+        searchIndex.add(created.getMessageId(), created.getPostedBy(), created.getMessageText(), created.getTimePostedEpoch());
+        timelineService.messagePosted(created);
+        return created;
+    }
+
+    private Message enqueue(Message message) throws BadRequestException, ServiceUnavailableException {
+        CompletableFuture<Message> written = writeBehindQueue.submit(message);
+        if(written == null) {
+            throw new ServiceUnavailableException("Too many messages are waiting to be written. Please try again shortly.");
+        }
+        try {
+            return written.join();
+        } catch(CompletionException ex) {
+            if(ex.getCause() instanceof DataIntegrityViolationException) {
+                throw new BadRequestException("User does not exist!");
+            }
+            throw ex;
         }
     }
 
     /**
-     *  @return A list of all the messages that exist within the database.
+     *  Creates many messages at once. Message text is validated in memory and every distinct postedBy is checked
+     *  with a single query; the valid messages are then inserted in one transaction using JDBC batching.
+     *  @param  messages    The new messages to be created, not including messageIds.
+     *  @return One result per message, in request order, holding either the created message or the reason it was rejected.
+     *  @throws BadRequestException When the batch holds more than MAX_BATCH_SIZE messages.
      */
-    public List<Message> getAllMessages() {
-        return messageRepository.findAll();
+    @Transactional
+    public List<MessageBatchItem> addMessages(List<Message> messages) throws BadRequestException {
+        if(messages.size() > MAX_BATCH_SIZE) {
+            throw new BadRequestException("A batch must not contain more than " + MAX_BATCH_SIZE + " messages.");
+        }
+        // Authors already known in memory need no lookup; the rest are checked with a single query.
+        Set<Integer> unknownIds = new HashSet<>();
+        for(Message message : messages) {
+            if(message.getPostedBy() != null && !accountIds.contains(message.getPostedBy())) {
+                unknownIds.add(message.getPostedBy());
+            }
+        }
+        Set<Integer> existingIds = unknownIds.isEmpty()
+                ? new HashSet<>()
+                : new HashSet<>(accountRepository.findExistingAccountIds(unknownIds));
+        existingIds.forEach(accountIds::add);
+
+        List<MessageBatchItem> results = new ArrayList<>(messages.size());
+        List<Message> accepted = new ArrayList<>(messages.size());
+        for(int i = 0; i < messages.size(); i++) {
+            Message message = messages.get(i);
+            String error = messageTextError(message.getMessageText());
+            if(error == null && (message.getPostedBy() == null
+                    || !accountIds.contains(message.getPostedBy()) && !existingIds.contains(message.getPostedBy()))) {
+                error = "User does not exist!";
+            }
+            if(error == null) {
+                message.setMessageId(null);
+                accepted.add(message);
+            }
+            results.add(new MessageBatchItem(i, error == null ? message : null, error));
+        }
+        messageRepository.saveAll(accepted);
+        accepted.stream().mapToInt(Message::getPostedBy).distinct().forEach(versions::accountChanged);
+        accepted.forEach(created -> searchIndex.add(created.getMessageId(), created.getPostedBy(), created.getMessageText(), created.getTimePostedEpoch()));
+        timelineService.messagesPosted(accepted);
+        return results;
+    }
+
+    /**
+     *  @return A list of all the messages that exist within the database, ordered by messageId.
+     */
+    @Transactional(readOnly = true)
+    public List<MessageView> getAllMessages() {
+        return messageRepository.findAllViews();
+    }
+
+    /**
+     *  Writes every message to the given stream as newline-delimited JSON, ordered by messageId.
+     *  Rows are read through a database cursor and detached once written, so memory use does not grow with the table.
+     *  @param  out The stream to write to. It is flushed but not closed.
+     *  @throws IOException When writing to the stream fails.
+     */
+    @Transactional(readOnly = true)
+    public void exportMessages(OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(Message.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null);
+        try(Stream<Message> messages = messageRepository.streamAllMessages()) {
+            Iterator<Message> iterator = messages.iterator();
+            int written = 0;
+            while(iterator.hasNext()) {
+                Message message = iterator.next();
+                writer.writeValue(generator, message);
+                generator.writeRaw('\n');
+                entityManager.detach(message);
+                if(++written % EXPORT_FLUSH_INTERVAL == 0) {
+                    generator.flush();
+                }
+            }
+        }
+        generator.close();
+        out.flush();
+    }
+
+    /**
+     *  @param  cursor  The cursor returned with the previous page, or null to start from the first message.
+     *  @param  limit   The maximum number of messages to return. Values above MAX_PAGE_SIZE are capped.
+     *  @return A page of messages ordered by messageId, with a cursor for the next page if more messages exist.
+     *  @throws BadRequestException When the cursor is malformed or the limit is not positive.
+     */
+    public MessagePage getMessagesPage(String cursor, int limit) throws BadRequestException {
+        int pageSize = pageSize(limit);
+        int afterId = cursor == null ? Integer.MIN_VALUE : (int) MessageCursor.decode(cursor, 1)[0];
+        // Fetch one extra row to learn whether a next page exists without a second query.
+        List<Message> messages = messageRepository.findMessagesAfter(afterId, PageRequest.of(0, pageSize + 1));
+        if(messages.size() <= pageSize) {
+            return new MessagePage(messages, null);
+        }
+        messages = messages.subList(0, pageSize);
+        Message last = messages.get(pageSize - 1);
+        return new MessagePage(messages, MessageCursor.encode(last.getMessageId()));
     }
 
     /**
      *  @param  messageId The ID of the message to be retrieved from the database.
      *  @return The matching message from the database. If there is no message with the given ID, return null.
+     *          Found messages are cached; misses are not, so a later insert is visible immediately.
      */
     public Message getMessage(int messageId) {
-        Optional<Message> optMessage = messageRepository.findById(messageId);
-        return optMessage.orElse(null);
+        // Not transactional: the cache must note its write generation before the read's transaction begins.
+        return messageCache.get(messageId, id -> messageRepository.findById(id).orElse(null));
     }
 
     /**
@@ -63,7 +234,59 @@ public class MessageService {
      */
     @Transactional
     public int deleteMessage(int messageId) {
-        return messageRepository.deleteByMessageId(messageId);
+        List<Integer> authorIds = messageRepository.deleteReturningAuthors(List.of(messageId));
+        if(!authorIds.isEmpty()) {
+            messageCache.evict(messageId);
+            authorsChanged(authorIds);
+            searchIndex.remove(List.of(messageId));
+        }
+        return authorIds.size();
+    }
+
+    /**
+     *  Deletes many messages with a single statement. Whole-cache eviction is used because the deleted
+     *  rows are never loaded, which is cheap next to how rarely moderation sweeps run.
+     *  @param  messageIds  The IDs of the messages to be deleted from the database.
+     *  @return The number of rows that were deleted in the database.
+     *  @throws BadRequestException When more than MAX_BATCH_SIZE IDs are given.
+     */
+    @Transactional
+    public int deleteMessages(List<Integer> messageIds) throws BadRequestException {
+        if(messageIds.size() > MAX_BATCH_SIZE) {
+            throw new BadRequestException("A batch must not contain more than " + MAX_BATCH_SIZE + " messages.");
+        } else if(messageIds.isEmpty()) {
+            return 0;
+        }
+        Set<Integer> distinctIds = new HashSet<>(messageIds);
+        List<Integer> authorIds = messageRepository.deleteReturningAuthors(distinctIds);
+        if(!authorIds.isEmpty()) {
+            messageCache.evictAll();
+            authorsChanged(authorIds);
+            searchIndex.remove(distinctIds);
+        }
+        return authorIds.size();
+    }
+
+    /**
+     *  @param  authorIds   The authors of changed messages, as returned by the write; may hold nulls and repeats.
+     */
+    private void authorsChanged(List<Integer> authorIds) {
+        authorIds.stream().filter(Objects::nonNull).distinct().forEach(versions::accountChanged);
+    }
+
+    /**
+     *  @param  accountId   The ID of the account whose messages are to be deleted from the database.
+     *  @return The number of rows that were deleted in the database.
+     */
+    @Transactional
+    public int deleteMessagesByAccount(int accountId) {
+        int rowsDeleted = messageRepository.deleteByPostedBy(accountId);
+        if(rowsDeleted > 0) {
+            messageCache.evictAll();
+            versions.accountChanged(accountId);
+            searchIndex.removeByAccount(accountId);
+        }
+        return rowsDeleted;
     }
 
     /**
@@ -73,24 +296,123 @@ public class MessageService {
      *  @throws BadRequestException When the new message text is blank or has a length greater than 255.
      *                              Or when the message to be updated does not exist.
      */
-    @Transactional
     public int updateMessageText(String messageText, int messageId) throws BadRequestException {
-        if(messageText.isBlank()) {
-            throw new BadRequestException("Message text must not be blank.");
-        } else if(messageText.length() > 255) {
-            throw new BadRequestException("Message text must not exceed 255 characters.");
-        } else if(!messageRepository.existsById(messageId)) {
+        // Invalid text is rejected before any transaction or connection is taken; the UPDATE runs in its own.
+        String textError = messageTextError(messageText);
+        if(textError != null) {
+            throw new BadRequestException(textError);
+        }
+        // A single UPDATE applies the change, tells us whether the message exists and returns its author, so there
+        // is no separate read that a concurrent delete could invalidate.
+        List<Integer> authorIds = messageRepository.updateMessageTextReturningAuthors(messageText, messageId);
+        if(authorIds.isEmpty()) {
             throw new BadRequestException("The message you are trying to update does not exist.");
-        } else {
-            return messageRepository.updateMessageTextByMessageId(messageText, messageId);
         }
+        messageCache.evict(messageId);
+        authorsChanged(authorIds);
+        searchIndex.update(messageId, messageText);
+        return authorIds.size();
     }
 
     /**
      *  @param  accountId   The ID of the account which posted the messages to be retrieved.
-     *  @return A list of messages posted by the identified account.
+     *  @return A list of messages posted by the identified account, ordered by messageId.
+     */
+    @Transactional(readOnly = true)
+    public List<MessageView> getAllMessagesByAccount(int accountId) {
+        return messageRepository.findViewsByPostedBy(accountId);
+    }
+
+    /**
+     *  @param  accountId   The ID of the account which posted the messages.
+     *  @return The current ETag of the list returned by getAllMessagesByAccount, found without reading the database.
+     *          Take it before reading the list, so a change committed in between is never hidden behind it.
+     */
+    public String getAllMessagesByAccountETag(int accountId) {
+        return versions.accountMessagesETag(accountId);
+    }
+
+    /**
+     *  @param  accountId   The ID of the account which posted the messages to be retrieved.
+     *  @param  cursor      The cursor returned with the previous page, or null to start from the newest message.
+     *  @param  limit       The maximum number of messages to return. Values above MAX_PAGE_SIZE are capped.
+     *  @return A page of messages posted by the identified account, newest first (by timePostedEpoch, then messageId;
+     *          messages without a time come last), with a cursor for the next page if older messages exist.
+     *  @throws BadRequestException When the cursor is malformed or the limit is not positive.
+     */
+    public MessagePage getMessagesByAccountPage(int accountId, String cursor, int limit) throws BadRequestException {
+        int pageSize = pageSize(limit);
+        PageRequest firstRows = PageRequest.of(0, pageSize + 1);
+        List<Message> messages;
+        if(cursor == null) {
+            messages = messageRepository.findLatestByPostedBy(accountId, firstRows);
+        } else {
+            long[] keys = MessageCursor.decode(cursor, 2);
+            messages = messageRepository.findLatestByPostedByBefore(accountId, keys[0], (int) keys[1], firstRows);
+        }
+        if(messages.size() <= pageSize) {
+            return new MessagePage(messages, null);
+        }
+        messages = messages.subList(0, pageSize);
+        Message last = messages.get(pageSize - 1);
+        return new MessagePage(messages, MessageCursor.encode(MessageCursor.timeKey(last.getTimePostedEpoch()), last.getMessageId()));
+    }
+
+    /**
+     *  @param  query   The words to search for; a message matches if its text contains all of them, ignoring case.
+     *  @param  limit   The maximum number of messages to return. Values above MAX_PAGE_SIZE are capped.
+     *  @return The most recent matching messages, newest first (by timePostedEpoch, then messageId).
+     *  @throws BadRequestException When the query contains no words or the limit is not positive.
+     *  @throws ServiceUnavailableException When the search index is still being loaded after startup.
+     */
+    @Transactional(readOnly = true)
+    public List<MessageView> searchMessages(String query, int limit) throws BadRequestException, ServiceUnavailableException {
+        int pageSize = pageSize(limit);
+        if(MessageSearchIndex.tokenize(query).isEmpty()) {
+            throw new BadRequestException("Search query must contain at least one word.");
+        } else if(!searchIndex.isReady()) {
+            throw new ServiceUnavailableException("The search index is still loading. Please try again shortly.");
+        }
+        int[] ids = searchIndex.search(query, pageSize);
+        if(ids.length == 0) {
+            return List.of();
+        }
+        List<Integer> rankedIds = new ArrayList<>(ids.length);
+        for(int id : ids) {
+            rankedIds.add(id);
+        }
+        Map<Integer, MessageView> found = new HashMap<>();
+        for(MessageView view : messageRepository.findViewsByMessageIdIn(rankedIds)) {
+            found.put(view.getMessageId(), view);
+        }
+        // Keep the index's ranking; a message deleted since the search simply drops out.
+        List<MessageView> results = new ArrayList<>(ids.length);
+        for(int id : ids) {
+            MessageView view = found.get(id);
+            if(view != null) {
+                results.add(view);
+            }
+        }
+        return results;
+    }
+
+    /**
+     *  @param  messageText The message text to validate.
+     *  @return A description of why the text is invalid, or null when it is valid.
      */
-    public List<Message> getAllMessagesByAccount(int accountId) {
-        return messageRepository.findMessagesByPostedBy(accountId);
+    static String messageTextError(String messageText) {
+        if(messageText == null || messageText.isBlank()) {
+            return "Message text must not be blank.";
+        } else if(messageText.length() > 255) {
+            return "Message text must not exceed 255 characters.";
+        }
+        return null;
+    }
+
+    static int pageSize(int limit) throws BadRequestException {
+        if(limit < 1) {
+            throw new BadRequestException("Page limit must be at least 1.");
+        }
+        return Math.min(limit, MAX_PAGE_SIZE);
     }
 }
@@ -0,0 +1,58 @@
+package com.example.service;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Component;
+
+import com.example.entity.Message;
+
+/**
+ * Version counters behind the ETags of message reads, so a polling client whose copy is current can be answered
+ * with 304 Not Modified.
+ *
+ * Each account has a counter for its message list, bumped whenever one of the account's messages is posted, edited
+ * or deleted. Changes made by messageId take the authors from the rows the UPDATE or DELETE returns, so an edit
+ * invalidates only its author's list and other accounts keep getting 304s.
+ * Counters are bumped only after the change has committed: a reader may then briefly pair new rows with an old
+ * ETag (costing one extra full response), but never old rows with a new one. ETags also carry a random per-process
+ * token, so those issued before a restart, when the counters start again from zero, are never matched.
+ */
+@Component
+public class MessageVersions {
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final String instance = Long.toHexString(ThreadLocalRandom.current().nextLong());
+    private final ConcurrentHashMap<Integer, AtomicLong> accountVersions = new ConcurrentHashMap<>();
+
+    /**
+     *  @param  accountId   The ID of the account whose message list is being read.
+     *  @return The ETag of the account's message list as it is now. Read it before the list itself.
+     */
+    public String accountMessagesETag(int accountId) {
+        AtomicLong version = accountVersions.get(accountId);
+        return instance + "-" + (version == null ? 0 : version.get());
+    }
+
+    /**
+     *  @param  message A message as returned by GET /messages/{messageId}.
+     *  @return An ETag derived from the message's content, which changes whenever any of its fields does.
+     */
+    public static String messageETag(Message message) {
+        String content = message.getPostedBy() + "|" + message.getTimePostedEpoch() + "|" + message.getMessageText();
+        long hash = FNV_OFFSET_BASIS;
+        for(int i = 0; i < content.length(); i++) {
+            hash = (hash ^ content.charAt(i)) * FNV_PRIME;
+        }
+        return message.getMessageId() + "-" + Long.toHexString(hash);
+    }
+
+    /**
+     *  @param  accountId   The ID of an account whose messages were added, edited or removed.
+     */
+    public void accountChanged(int accountId) {
+        AfterCommit.run(() -> accountVersions.computeIfAbsent(accountId, id -> new AtomicLong()).incrementAndGet());
+    }
+}
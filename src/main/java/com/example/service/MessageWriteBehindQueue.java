@@ -0,0 +1,232 @@
+package com.example.service;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.entity.Message;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Write-behind ingestion for new messages, enabled with socialmedia.ingest.mode=write-behind.
+ *
+ * Validated messages are given an ID straight away and queued in memory. A single writer thread drains the queue
+ * and inserts everything it finds in one JDBC batch and one commit (group commit), so posting throughput is bounded
+ * by batch commits rather than one commit per request. Each message is acknowledged either once its batch has
+ * committed (socialmedia.ingest.ack=flush, the default) or as soon as it is queued (ack=enqueue), trading durability
+ * and read-your-writes for latency. When the queue is full, submit refuses the message so callers can shed load.
+ *
+ * IDs are reserved from message_seq with the same pooled-lo scheme as PooledSequenceGenerator: each sequence value
+ * starts a block of increment_size IDs, so they never collide with IDs handed out through JPA.
+ *
+ * The authors' MessageVersions counters, the search index and timeline feeds are updated when rows commit, not when they are
+ * acknowledged, so with ack=enqueue a poller keeps its 304s until the new message is actually readable.
+ */
+@Component
+@ConditionalOnProperty(name = "socialmedia.ingest.mode", havingValue = "write-behind")
+public class MessageWriteBehindQueue {
+    private static final Logger log = LoggerFactory.getLogger(MessageWriteBehindQueue.class);
+    private static final String INSERT = "INSERT INTO message (messageId, postedBy, messageText, timePostedEpoch) VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MessageVersions versions;
+    private final MessageSearchIndex searchIndex;
+    private final TimelineService timelineService;
+    private final BlockingQueue<Pending> queue;
+    private final int maxBatch;
+    private final int idBlockSize;
+    private final boolean ackOnEnqueue;
+    private final Thread writer;
+    private final Object lifecycleLock = new Object();
+    private volatile boolean stopping;
+    private int nextId;
+    private int idBlockEnd;
+
+    /**
+     * A queued message and the future completed once it has been written (or has failed to be).
+     */
+    private static final class Pending {
+        private final Message message;
+        private final CompletableFuture<Message> written = new CompletableFuture<>();
+
+        private Pending(Message message) {
+            this.message = message;
+        }
+    }
+
+    /**
+     *  @param  queueCapacity   The most messages that may be waiting to be written.
+     *  @param  maxBatch        The most messages written in one batch and commit.
+     *  @param  ack             "flush" to acknowledge after commit, "enqueue" to acknowledge once queued.
+     *  @param  idBlockSize     The increment of message_seq, as configured for PooledSequenceGenerator.
+     */
+    public MessageWriteBehindQueue(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+            MessageVersions versions, MessageSearchIndex searchIndex, TimelineService timelineService, MeterRegistry meterRegistry,
+            @Value("${socialmedia.ingest.queue-capacity:10000}") int queueCapacity,
+            @Value("${socialmedia.ingest.max-batch:500}") int maxBatch,
+            @Value("${socialmedia.ingest.ack:flush}") String ack,
+            @Value("${spring.jpa.properties.socialmedia.id.message_seq.increment_size:50}") int idBlockSize) {
+        if(!ack.equals("flush") && !ack.equals("enqueue")) {
+            throw new IllegalArgumentException("socialmedia.ingest.ack must be flush or enqueue, not " + ack + ".");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.versions = versions;
+        this.searchIndex = searchIndex;
+        this.timelineService = timelineService;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.maxBatch = maxBatch;
+        this.idBlockSize = idBlockSize;
+        this.ackOnEnqueue = ack.equals("enqueue");
+        Gauge.builder("socialmedia.ingest.queue.size", queue, BlockingQueue::size)
+                .description("Messages accepted but not yet written")
+                .register(meterRegistry);
+        this.writer = new Thread(this::drain, "message-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     *  @param  message A validated message, not including messageId.
+     *  @return A future completed with the message, including its assigned messageId, once it has been acknowledged
+     *          according to the ack mode; or null if the queue is full.
+     */
+    public CompletableFuture<Message> submit(Message message) {
+        Message queued = new Message(allocateId(), message.getPostedBy(), message.getMessageText(), message.getTimePostedEpoch());
+        Pending pending = new Pending(queued);
+        // Checked and offered under the lock stop() takes, so nothing can be queued once the writer may have exited.
+        synchronized(lifecycleLock) {
+            if(stopping || !queue.offer(pending)) {
+                return null;
+            }
+        }
+        return ackOnEnqueue ? CompletableFuture.completedFuture(queued) : pending.written;
+    }
+
+    private synchronized int allocateId() {
+        if(nextId == idBlockEnd) {
+            nextId = jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR message_seq", Integer.class);
+            idBlockEnd = nextId + idBlockSize;
+        }
+        return nextId++;
+    }
+
+    private void drain() {
+        List<Pending> batch = new ArrayList<>(maxBatch);
+        while(!stopping || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if(first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatch - 1);
+                write(batch);
+            } catch(InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch(RuntimeException ex) {
+                log.error("Failed to write {} queued messages", batch.size(), ex);
+                batch.forEach(pending -> pending.written.completeExceptionally(ex));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     *  Inserts the batch in one transaction. If that fails (e.g. an author was removed after validation), the
+     *  messages are retried one at a time so only the offending ones fail.
+     */
+    private void write(List<Pending> batch) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT, batch, batch.size(),
+                    (statement, pending) -> {
+                        statement.setInt(1, pending.message.getMessageId());
+                        statement.setInt(2, pending.message.getPostedBy());
+                        statement.setString(3, pending.message.getMessageText());
+                        statement.setObject(4, pending.message.getTimePostedEpoch(), Types.BIGINT);
+                    }));
+        } catch(RuntimeException ex) {
+            List<Message> stored = new ArrayList<>(batch.size());
+            for(Pending pending : batch) {
+                try {
+                    Message message = pending.message;
+                    jdbcTemplate.update(INSERT, message.getMessageId(), message.getPostedBy(), message.getMessageText(), message.getTimePostedEpoch());
+                    pending.written.complete(message);
+                    stored.add(message);
+                } catch(RuntimeException rowEx) {
+                    if(ackOnEnqueue) {
+                        log.warn("Dropped acknowledged message {}", pending.message, rowEx);
+                    }
+                    pending.written.completeExceptionally(rowEx);
+                }
+            }
+            written(stored);
+            return;
+        }
+        List<Message> stored = new ArrayList<>(batch.size());
+        batch.forEach(pending -> {
+            pending.written.complete(pending.message);
+            stored.add(pending.message);
+        });
+        written(stored);
+    }
+
+    /**
+     *  Updates the in-memory read structures for committed messages. The rows are already stored, so a failure here
+     *  is logged rather than reported to the messages' submitters or to the rest of their batch.
+     */
+    private void written(List<Message> messages) {
+        for(Message message : messages) {
+            try {
+                versions.accountChanged(message.getPostedBy());
+                searchIndex.add(message.getMessageId(), message.getPostedBy(), message.getMessageText(), message.getTimePostedEpoch());
+            } catch(RuntimeException ex) {
+                log.error("Wrote message {} but failed to publish it to the read structures", message, ex);
+            }
+        }
+        try {
+            timelineService.messagesPosted(messages);
+        } catch(RuntimeException ex) {
+            log.error("Wrote {} messages but failed to push them to the timelines", messages.size(), ex);
+        }
+    }
+
+    /**
+     *  Stops accepting messages and writes everything already queued before the application shuts down. Anything
+     *  the writer leaves behind (it timed out or was interrupted) is failed, so no submitter waits forever.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        synchronized(lifecycleLock) {
+            stopping = true;
+        }
+        writer.join(TimeUnit.SECONDS.toMillis(30));
+        List<Pending> unwritten = new ArrayList<>();
+        queue.drainTo(unwritten);
+        if(!unwritten.isEmpty()) {
+            log.error("Shut down with {} queued messages unwritten", unwritten.size());
+            IllegalStateException ex = new IllegalStateException("The message writer stopped before this message was written.");
+            unwritten.forEach(pending -> pending.written.completeExceptionally(ex));
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.security.spec.InvalidKeySpecException;
+import java.util.Base64;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hashes and verifies account passwords with salted PBKDF2-HMAC-SHA256.
+ *
+ * Stored hashes have the form pbkdf2-sha256$&lt;iterations&gt;$&lt;base64 salt&gt;$&lt;base64 hash&gt;, so the
+ * work factor can be raised without invalidating existing hashes. Values without that prefix are treated as
+ * legacy plaintext passwords; they still verify (in constant time) and are reported by needsRehash.
+ */
+@Component
+public class PasswordHasher {
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final String PREFIX = "pbkdf2-sha256";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+
+    private final int iterations;
+    private final SecureRandom random = new SecureRandom();
+    private final String unknownAccountHash;
+
+    /**
+     *  @param  iterations  The PBKDF2 iteration count (work factor) used for new hashes.
+     */
+    public PasswordHasher(@Value("${socialmedia.security.password-iterations:310000}") int iterations) {
+        this.iterations = iterations;
+        this.unknownAccountHash = hash("unknown-account");
+    }
+
+    /**
+     *  @param  password    The plaintext password.
+     *  @return A salted hash of the password, encoded with its parameters.
+     */
+    public String hash(String password) {
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        Base64.Encoder encoder = Base64.getEncoder();
+        return PREFIX + "$" + iterations + "$" + encoder.encodeToString(salt) + "$"
+                + encoder.encodeToString(pbkdf2(password, salt, iterations));
+    }
+
+    /**
+     *  @param  password    The plaintext password to check.
+     *  @param  stored      The stored hash (or legacy plaintext password) to check against.
+     *  @return true if the password matches. The comparison takes the same time wherever the first mismatch is.
+     */
+    public boolean matches(String password, String stored) {
+        if(!stored.startsWith(PREFIX + "$")) {
+            return MessageDigest.isEqual(password.getBytes(StandardCharsets.UTF_8), stored.getBytes(StandardCharsets.UTF_8));
+        }
+        String[] parts = stored.split("\\$");
+        if(parts.length != 4) {
+            return false;
+        }
+        Base64.Decoder decoder = Base64.getDecoder();
+        byte[] expected = decoder.decode(parts[3]);
+        byte[] actual = pbkdf2(password, decoder.decode(parts[2]), Integer.parseInt(parts[1]));
+        return MessageDigest.isEqual(expected, actual);
+    }
+
+    /**
+     *  Spends the same work as verifying a real account, so a login for an unknown username
+     *  cannot be told apart from a wrong password by its response time.
+     *  @param  password    The plaintext password that was submitted.
+     */
+    public void matchesUnknownAccount(String password) {
+        matches(password, unknownAccountHash);
+    }
+
+    /**
+     *  @param  stored  A stored hash (or legacy plaintext password).
+     *  @return true if the stored value is plaintext or was hashed with a different work factor.
+     */
+    public boolean needsRehash(String stored) {
+        return !stored.startsWith(PREFIX + "$" + iterations + "$");
+    }
+
+    private static byte[] pbkdf2(String password, byte[] salt, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch(NoSuchAlgorithmException | InvalidKeySpecException ex) {
+            throw new IllegalStateException(ALGORITHM + " is not available.", ex);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
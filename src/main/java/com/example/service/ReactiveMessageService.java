@@ -0,0 +1,86 @@
+package com.example.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Service;
+
+import com.example.entity.Message;
+import com.example.exception.BadRequestException;
+import com.example.repository.ReactiveMessageRepository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * The message operations of MessageService for the reactive stack, with the same validation rules.
+ * Failures are signalled as error signals carrying the same exceptions MessageService throws.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveMessageService {
+    private final ReactiveMessageRepository messageRepository;
+    private final AccountIdSet accountIds;
+
+    public ReactiveMessageService(ReactiveMessageRepository messageRepository, AccountIdSet accountIds) {
+        this.messageRepository = messageRepository;
+        this.accountIds = accountIds;
+    }
+
+    /**
+     *  @param  message The message to be added, not including messageId.
+     *  @return The added message, or BadRequestException if its text is invalid or its author does not exist.
+     */
+    public Mono<Message> addMessage(Message message) {
+        String textError = MessageService.messageTextError(message.getMessageText());
+        if(textError != null) {
+            return Mono.error(new BadRequestException(textError));
+        } else if(message.getPostedBy() == null) {
+            return Mono.error(new BadRequestException("User does not exist!"));
+        } else if(accountIds.contains(message.getPostedBy())) {
+            return messageRepository.insert(message);
+        }
+        return messageRepository.accountExists(message.getPostedBy())
+                .flatMap(exists -> {
+                    if(!exists) {
+                        return Mono.error(new BadRequestException("User does not exist!"));
+                    }
+                    accountIds.add(message.getPostedBy());
+                    return messageRepository.insert(message);
+                });
+    }
+
+    public Flux<Message> getAllMessages() {
+        return messageRepository.findAll();
+    }
+
+    /**
+     *  @return The message, or an empty Mono if there is none with this ID.
+     */
+    public Mono<Message> getMessage(int messageId) {
+        return messageRepository.findById(messageId);
+    }
+
+    /**
+     *  @return The number of rows deleted (0 if there was no such message).
+     */
+    public Mono<Integer> deleteMessage(int messageId) {
+        return messageRepository.deleteById(messageId);
+    }
+
+    /**
+     *  @return The number of rows updated, or BadRequestException if the text is invalid or there is no such message.
+     */
+    public Mono<Integer> updateMessageText(String messageText, int messageId) {
+        String textError = MessageService.messageTextError(messageText);
+        if(textError != null) {
+            return Mono.error(new BadRequestException(textError));
+        }
+        return messageRepository.updateMessageText(messageText, messageId)
+                .flatMap(rowsUpdated -> rowsUpdated > 0
+                        ? Mono.just(rowsUpdated)
+                        : Mono.error(new BadRequestException("The message you are trying to update does not exist.")));
+    }
+
+    public Flux<Message> getAllMessagesByAccount(int accountId) {
+        return messageRepository.findByPostedBy(accountId);
+    }
+}
@@ -0,0 +1,371 @@
+package com.example.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.dto.MessagePage;
+import com.example.entity.Follow;
+import com.example.entity.Message;
+import com.example.exception.BadRequestException;
+import com.example.repository.FollowRepository;
+import com.example.repository.MessageStore;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Follows between accounts, and each account's home timeline: its own messages and those of the accounts it
+ * follows, newest first.
+ *
+ * Timelines are precomputed on write. Each account that has read its timeline recently has a feed in memory: the
+ * keys of its newest feed-size timeline messages. A new message is pushed into the feeds of its author and of each
+ * follower, so reading a page costs one lookup of the page's messages by ID rather than a join across follows.
+ * Feeds are built from the database on first read, dropped when the account follows or unfollows someone, and
+ * evicted when more than cached-feeds are held.
+ *
+ * Accounts with more than fan-out-limit followers are not pushed: their messages are pulled when a follower reads
+ * and merged into the page. Once an account crosses the limit it stays on the pull path until restart. A page
+ * older than everything a feed retains is read from the database instead.
+ *
+ * Deleted messages are not removed from feeds when they are deleted. A read that finds entries whose messages no
+ * longer exist drops them from the feed and reads the page again, so pages stay full.
+ */
+@Service
+public class TimelineService {
+    private final FollowRepository followRepository;
+    private final MessageStore messageRepository;
+    private final AccountIdSet accountIds;
+    private final int feedSize;
+    private final int fanOutLimit;
+    private final Cache<Integer, Feed> feeds;
+    private final Set<Integer> pulledAuthors = ConcurrentHashMap.newKeySet();
+
+    /**
+     * The newest timeline entries of one account, as (timePostedEpoch, messageId) pairs sorted oldest first. A
+     * message without a time is keyed by MessageCursor.NO_TIME, so it sorts as the oldest, as the queries place it.
+     */
+    static final class Feed {
+        private final long[] times;
+        private final int[] ids;
+        private final Object loadLock = new Object();
+        private int size;
+        private boolean truncated;
+        private volatile boolean loaded;
+
+        Feed(int capacity) {
+            this.times = new long[capacity];
+            this.ids = new int[capacity];
+        }
+
+        /**
+         *  Inserts an entry in order, dropping the oldest if the feed is full. Duplicates are ignored.
+         */
+        synchronized void add(long time, int id) {
+            int index = indexOf(time, id);
+            if(index >= 0) {
+                return;
+            }
+            index = -index - 1;
+            if(size == ids.length) {
+                truncated = true;
+                if(index == 0) {
+                    return;
+                }
+                System.arraycopy(times, 1, times, 0, index - 1);
+                System.arraycopy(ids, 1, ids, 0, index - 1);
+                index--;
+            } else {
+                System.arraycopy(times, index, times, index + 1, size - index);
+                System.arraycopy(ids, index, ids, index + 1, size - index);
+                size++;
+            }
+            times[index] = time;
+            ids[index] = id;
+        }
+
+        /**
+         *  Merges in the newest timeline messages read from the database.
+         *  @param  complete    false if the database may hold older timeline messages than these.
+         */
+        synchronized void load(List<Message> latest, boolean complete) {
+            latest.forEach(message -> add(MessageCursor.timeKey(message.getTimePostedEpoch()), message.getMessageId()));
+            truncated |= !complete;
+            loaded = true;
+        }
+
+        /**
+         *  @return Up to max entries older than the given keys, newest first; or null if the feed may be missing
+         *          some of them because it has dropped older entries.
+         */
+        synchronized List<long[]> before(long time, int id, int max) {
+            int end = indexOf(time, id);
+            end = end >= 0 ? end : -end - 1;
+            int start = Math.max(0, end - max);
+            if(start == 0 && end < max && truncated) {
+                return null;
+            }
+            List<long[]> entries = new ArrayList<>(end - start);
+            for(int i = end - 1; i >= start; i--) {
+                entries.add(new long[] {times[i], ids[i]});
+            }
+            return entries;
+        }
+
+        /**
+         *  Drops the entries of messages that no longer exist.
+         */
+        synchronized void remove(Set<Integer> deletedIds) {
+            int kept = 0;
+            for(int i = 0; i < size; i++) {
+                if(!deletedIds.contains(ids[i])) {
+                    times[kept] = times[i];
+                    ids[kept] = ids[i];
+                    kept++;
+                }
+            }
+            size = kept;
+        }
+
+        private int indexOf(long time, int id) {
+            int low = 0;
+            int high = size - 1;
+            while(low <= high) {
+                int mid = (low + high) >>> 1;
+                int cmp = times[mid] != time ? Long.compare(times[mid], time) : Integer.compare(ids[mid], id);
+                if(cmp < 0) {
+                    low = mid + 1;
+                } else if(cmp > 0) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+    }
+
+    /**
+     *  @param  feedSize        The most timeline entries held in memory per account.
+     *  @param  fanOutLimit     The most followers an account may have and still have its messages pushed.
+     *  @param  cachedFeeds     The most feeds held in memory at once.
+     */
+    @Autowired
+    public TimelineService(FollowRepository followRepository, MessageStore messageRepository, AccountIdSet accountIds,
+            @Value("${socialmedia.timeline.feed-size:200}") int feedSize,
+            @Value("${socialmedia.timeline.fan-out-limit:1000}") int fanOutLimit,
+            @Value("${socialmedia.timeline.cached-feeds:10000}") long cachedFeeds) {
+        this.followRepository = followRepository;
+        this.messageRepository = messageRepository;
+        this.accountIds = accountIds;
+        this.feedSize = feedSize;
+        this.fanOutLimit = fanOutLimit;
+        this.feeds = Caffeine.newBuilder().maximumSize(cachedFeeds).build();
+    }
+
+    /**
+     *  Finds the accounts that already have too many followers to push to.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void warm() {
+        pulledAuthors.addAll(followRepository.findFollowedIdsWithMoreFollowersThan(fanOutLimit));
+    }
+
+    /**
+     *  @param  followerId  The ID of the account that will follow.
+     *  @param  followedId  The ID of the account to be followed.
+     *  @throws BadRequestException When either account does not exist, or they are the same account.
+     */
+    @Transactional
+    public void follow(int followerId, int followedId) throws BadRequestException {
+        if(followerId == followedId) {
+            throw new BadRequestException("Accounts cannot follow themselves.");
+        } else if(!accountIds.exists(followerId) || !accountIds.exists(followedId)) {
+            throw new BadRequestException("User does not exist!");
+        }
+        followRepository.save(new Follow(followerId, followedId));
+        boolean pull = followRepository.countByFollowedId(followedId) > fanOutLimit;
+        AfterCommit.run(() -> {
+            if(pull) {
+                pulledAuthors.add(followedId);
+            }
+            feeds.invalidate(followerId);
+        });
+    }
+
+    /**
+     *  @param  followerId  The ID of the account that follows.
+     *  @param  followedId  The ID of the account to stop following.
+     *  @return The number of follows that were deleted (0 if the account was not following).
+     */
+    @Transactional
+    public int unfollow(int followerId, int followedId) {
+        int rowsDeleted = followRepository.deleteByFollowerIdAndFollowedId(followerId, followedId);
+        if(rowsDeleted > 0) {
+            AfterCommit.run(() -> feeds.invalidate(followerId));
+        }
+        return rowsDeleted;
+    }
+
+    /**
+     *  Pushes a newly created message into the feeds that should show it, once it has committed.
+     *  @param  message The created message, including its messageId.
+     */
+    public void messagePosted(Message message) {
+        messagesPosted(List.of(message));
+    }
+
+    /**
+     *  Pushes newly created messages into the feeds that should show them, once they have committed. Followers are
+     *  read once per author rather than once per message.
+     *  @param  messages    The created messages, including their messageIds.
+     */
+    public void messagesPosted(List<Message> messages) {
+        // Followers are read after the commit: an account that follows the author before then is pushed to, and one
+        // that follows afterwards rebuilds its feed from a query that already sees the message.
+        AfterCommit.run(() -> {
+            Map<Integer, List<Message>> byAuthor = new HashMap<>();
+            messages.forEach(message -> byAuthor.computeIfAbsent(message.getPostedBy(), id -> new ArrayList<>()).add(message));
+            byAuthor.forEach((authorId, posted) -> {
+                push(authorId, posted);
+                if(!pulledAuthors.contains(authorId)) {
+                    for(int followerId : followRepository.findFollowerIds(authorId)) {
+                        push(followerId, posted);
+                    }
+                }
+            });
+        });
+    }
+
+    private void push(int accountId, List<Message> messages) {
+        Feed feed = feeds.getIfPresent(accountId);
+        if(feed != null) {
+            messages.forEach(message -> feed.add(MessageCursor.timeKey(message.getTimePostedEpoch()), message.getMessageId()));
+        }
+    }
+
+    /**
+     *  @param  accountId   The ID of the account whose home timeline is to be read.
+     *  @param  cursor      The cursor returned with the previous page, or null to start from the newest message.
+     *  @param  limit       The maximum number of messages to return. Values above MessageService.MAX_PAGE_SIZE are capped.
+     *  @return A page of the messages posted by the account and the accounts it follows, newest first (by
+     *          timePostedEpoch, then messageId; messages without a time come last), with a cursor for the next page
+     *          if older messages exist.
+     *  @throws BadRequestException When the cursor is malformed or the limit is not positive.
+     */
+    @Transactional(readOnly = true)
+    public MessagePage getTimeline(int accountId, String cursor, int limit) throws BadRequestException {
+        int pageSize = MessageService.pageSize(limit);
+        long beforeTime = Long.MAX_VALUE;
+        int beforeId = Integer.MAX_VALUE;
+        if(cursor != null) {
+            long[] keys = MessageCursor.decode(cursor, 2);
+            beforeTime = keys[0];
+            beforeId = (int) keys[1];
+        }
+        Feed feed = feed(accountId);
+        Map<Integer, Message> pulled = null;
+        while(true) {
+            List<long[]> entries = feed.before(beforeTime, beforeId, pageSize + 1);
+            if(entries == null) {
+                List<Message> messages = messageRepository.findTimelineBefore(accountId, beforeTime, beforeId, PageRequest.of(0, pageSize + 1));
+                return page(messages, pageSize);
+            }
+            if(pulled == null) {
+                pulled = pulled(accountId, beforeTime, beforeId, pageSize);
+            }
+            if(!pulled.isEmpty()) {
+                Set<Integer> pushed = new HashSet<>();
+                entries.forEach(entry -> pushed.add((int) entry[1]));
+                pulled.values().stream()
+                        .filter(message -> !pushed.contains(message.getMessageId()))
+                        .forEach(message -> entries.add(new long[] {MessageCursor.timeKey(message.getTimePostedEpoch()), message.getMessageId()}));
+                entries.sort(Comparator.<long[]>comparingLong(entry -> entry[0]).thenComparingLong(entry -> entry[1]).reversed());
+            }
+            // The entry after the page is looked up too, so that a next cursor is only returned when an older message
+            // still exists.
+            List<long[]> pageEntries = entries.subList(0, Math.min(entries.size(), pageSize + 1));
+            Map<Integer, Message> found = new HashMap<>(pulled);
+            List<Integer> missing = new ArrayList<>();
+            pageEntries.forEach(entry -> {
+                if(!found.containsKey((int) entry[1])) {
+                    missing.add((int) entry[1]);
+                }
+            });
+            messageRepository.findAllById(missing).forEach(message -> found.put(message.getMessageId(), message));
+            Set<Integer> deleted = new HashSet<>();
+            List<Message> messages = new ArrayList<>(pageEntries.size());
+            for(long[] entry : pageEntries) {
+                Message message = found.get((int) entry[1]);
+                if(message != null) {
+                    messages.add(message);
+                } else {
+                    deleted.add((int) entry[1]);
+                }
+            }
+            if(deleted.isEmpty()) {
+                return page(messages, pageSize);
+            }
+            // Each pass removes at least one entry, so this ends.
+            feed.remove(deleted);
+        }
+    }
+
+    /**
+     *  @return The messages older than the given keys of the followed accounts whose messages are not pushed, by
+     *          messageId.
+     */
+    private Map<Integer, Message> pulled(int accountId, long beforeTime, int beforeId, int pageSize) {
+        Map<Integer, Message> pulled = new HashMap<>();
+        if(!pulledAuthors.isEmpty()) {
+            for(int followedId : followRepository.findFollowedIds(accountId)) {
+                if(pulledAuthors.contains(followedId)) {
+                    for(Message message : messageRepository.findLatestByPostedByBefore(followedId, beforeTime, beforeId, PageRequest.of(0, pageSize + 1))) {
+                        pulled.put(message.getMessageId(), message);
+                    }
+                }
+            }
+        }
+        return pulled;
+    }
+
+    /**
+     *  @return The account's feed, built from the database if it is not in memory. The empty feed is registered
+     *          before it is loaded, so messages committed during the load are pushed into it rather than lost.
+     */
+    private Feed feed(int accountId) {
+        Feed feed = feeds.get(accountId, id -> new Feed(feedSize));
+        if(!feed.loaded) {
+            // Loads are serialized per feed, apart from pushes, which only wait for the final merge.
+            synchronized(feed.loadLock) {
+                if(!feed.loaded) {
+                    List<Message> latest = messageRepository.findTimelineBefore(accountId, Long.MAX_VALUE, Integer.MAX_VALUE, PageRequest.of(0, feedSize));
+                    feed.load(latest, latest.size() < feedSize);
+                }
+            }
+        }
+        return feed;
+    }
+
+    private static MessagePage page(List<Message> messages, int pageSize) {
+        if(messages.size() <= pageSize) {
+            return new MessagePage(messages, null);
+        }
+        messages = messages.subList(0, pageSize);
+        Message last = messages.get(pageSize - 1);
+        return new MessagePage(messages, MessageCursor.encode(MessageCursor.timeKey(last.getTimePostedEpoch()), last.getMessageId()));
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.repository.AccountRepository;
+
+/**
+ * A Bloom filter over every registered username, used to skip the duplicate-username lookup
+ * for names that have certainly never been registered.
+ *
+ * The filter can return false positives (which fall back to a database lookup) but never false negatives
+ * once it has been warmed. Until then every name is reported as possibly present.
+ */
+@Component
+public class UsernameFilter {
+    private final AccountRepository accountRepository;
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+    private volatile boolean warmed;
+
+    /**
+     *  @param  accountRepository   The repository used to load existing usernames at startup.
+     *  @param  expectedInsertions  The number of usernames the filter is sized for.
+     *  @param  falsePositiveRate   The target probability of reporting an unregistered name as possibly present.
+     */
+    @Autowired
+    public UsernameFilter(AccountRepository accountRepository,
+            @Value("${socialmedia.accounts.username-filter.expected-insertions:1000000}") int expectedInsertions,
+            @Value("${socialmedia.accounts.username-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.accountRepository = accountRepository;
+        double ln2 = Math.log(2);
+        long optimalBits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (ln2 * ln2));
+        this.bits = new AtomicLongArray((int) ((Math.max(optimalBits, 64) + 63) / 64));
+        this.bitCount = bits.length() * 64L;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * ln2));
+    }
+
+    /**
+     *  Loads every existing username into the filter once the application has started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void warm() {
+        try(Stream<String> usernames = accountRepository.streamAllUsernames()) {
+            usernames.forEach(this::add);
+        }
+        warmed = true;
+    }
+
+    /**
+     *  @param  username    The username to look up.
+     *  @return false if the username has certainly not been registered, true if it may have been.
+     */
+    public boolean mightContain(String username) {
+        if(!warmed) {
+            return true;
+        }
+        long hash = hash(username);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for(int i = 1; i <= hashCount; i++) {
+            long bit = index(h1 + i * h2);
+            if((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     *  @param  username    A username that has been registered.
+     */
+    public void add(String username) {
+        long hash = hash(username);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for(int i = 1; i <= hashCount; i++) {
+            long bit = index(h1 + i * h2);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current;
+            while(((current = bits.get(word)) & mask) == 0 && !bits.compareAndSet(word, current, current | mask)) {
+                // Another thread changed this word; retry with its latest value.
+            }
+        }
+    }
+
+    private long index(int combinedHash) {
+        return (combinedHash & 0x7fffffffL) % bitCount;
+    }
+
+    /**
+     *  64-bit FNV-1a over the username's characters, finished with the MurmurHash3 mixer so both halves
+     *  are well distributed for double hashing.
+     */
+    private static long hash(String username) {
+        long hash = 0xcbf29ce484222325L;
+        for(int i = 0; i < username.length(); i++) {
+            hash ^= username.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -1,3 +1,4 @@
+drop table if exists follow;
 drop table if exists message;
 drop table if exists account;
 create table account (
@@ -12,12 +13,22 @@ create table message (
     timePostedEpoch bigint,
     foreign key (postedBy) references account(accountId)
 );
+create index message_postedBy_newest_idx on message (postedBy, timePostedEpoch desc, messageId desc);
+create table follow (
+    followerId int not null,
+    followedId int not null,
+    primary key (followerId, followedId),
+    foreign key (followerId) references account(accountId),
+    foreign key (followedId) references account(accountId)
+);
+create index follow_followedId_idx on follow (followedId, followerId);
 
 -- Starting test values with ids of 9999 to avoid test issues
-insert into account values (9999, 'testuser1', 'password');
-insert into account values (9998, 'testuser2', 'password');
-insert into account values (9997, 'testuser3', 'password');
-insert into account values (9996, 'testuser4', 'password');
+-- Passwords are stored as salted PBKDF2 hashes (see PasswordHasher); each test user's password is 'password'
+insert into account values (9999, 'testuser1', 'pbkdf2-sha256$310000$gBVIne1iYZjtYWAZXKYY2w==$DOyqZmFsEaqvQj6fEfbH49/HZj1eJmuIOBQ24lgprzI=');
+insert into account values (9998, 'testuser2', 'pbkdf2-sha256$310000$WgmrAhDxy3mSY3RTkg4UKw==$XhzqbeYJHE/gMAqbRwMSr0X7aSfuCL9Glxi0g7JHZos=');
+insert into account values (9997, 'testuser3', 'pbkdf2-sha256$310000$UMd7NJ0pv+TzYQ7S/UKFzg==$P/syoyYlrj7/yzUDNtgnRIWl0MPeoBbRjbWF5oMBBtY=');
+insert into account values (9996, 'testuser4', 'pbkdf2-sha256$310000$ZPJcEfM8sNhZg2LGYezW+g==$2xJ9Ayvk6EpJn6cHx7cMT/cPDBpnnYPGRpp96385+TM=');
 
 insert into message values (9999, 9999,'test message 1',1669947792);
 insert into message values (9997, 9997,'test message 2',1669947792);
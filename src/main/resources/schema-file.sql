@@ -0,0 +1,28 @@
+-- Schema for the file profile. Every statement is a no-op when its object already exists, so this runs on each
+-- startup without touching stored data. Keep it in step with data.sql; sequence increments must match
+-- spring.jpa.properties.socialmedia.id.*.increment_size.
+create table if not exists account (
+    accountId int primary key,
+    username varchar(255) not null unique,
+    password varchar(255)
+);
+create table if not exists message (
+    messageId int primary key,
+    postedBy int,
+    messageText varchar(255),
+    timePostedEpoch bigint,
+    foreign key (postedBy) references account(accountId)
+);
+-- Replaced by message_postedBy_newest_idx, whose descending order lets newest-first pages read the index in order.
+drop index if exists message_postedBy_timePostedEpoch_idx;
+create index if not exists message_postedBy_newest_idx on message (postedBy, timePostedEpoch desc, messageId desc);
+create table if not exists follow (
+    followerId int not null,
+    followedId int not null,
+    primary key (followerId, followedId),
+    foreign key (followerId) references account(accountId),
+    foreign key (followedId) references account(accountId)
+);
+create index if not exists follow_followedId_idx on follow (followedId, followerId);
+create sequence if not exists account_seq start with 1 increment by 50;
+create sequence if not exists message_seq start with 1 increment by 50;
@@ -0,0 +1,203 @@
+package com.example;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+
+import com.example.entity.Message;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class ConditionalGetTest {
+    ApplicationContext app;
+    HttpClient webClient;
+    ObjectMapper objectMapper;
+
+    /**
+     * Before every test, reset the database, restart the app, and create a new webClient and ObjectMapper
+     * for interacting locally on the web.
+     * @throws InterruptedException
+     */
+    @BeforeEach
+    public void setUp() throws InterruptedException {
+        webClient = HttpClient.newHttpClient();
+        objectMapper = new ObjectMapper();
+        String[] args = new String[] {};
+        app = SpringApplication.run(SocialMediaApp.class, args);
+        Thread.sleep(500);
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+        Thread.sleep(500);
+        SpringApplication.exit(app);
+    }
+
+    /**
+     * Sending GET localhost:8080/messages/9999, then again with If-None-Match set to the returned ETag
+     *
+     * Expected Response:
+     *  Status Code: 304
+     *  Response Body: empty
+     */
+    @Test
+    public void getMessageNotModified() throws IOException, InterruptedException {
+        HttpResponse<String> first = get("/messages/9999", null);
+        Assertions.assertEquals(200, first.statusCode());
+        String eTag = first.headers().firstValue("ETag").orElseThrow();
+
+        HttpResponse<String> second = get("/messages/9999", eTag);
+        int status = second.statusCode();
+        Assertions.assertEquals(304, status, "Expected Status Code 304 - Actual Code was: " + status);
+        Assertions.assertTrue(second.body().isEmpty(), "Expected an empty body but was: " + second.body());
+    }
+
+    /**
+     * Sending GET localhost:8080/messages/9999, then PATCH localhost:8080/messages/9999,
+     * then GET localhost:8080/messages/9999 with If-None-Match set to the first ETag
+     *
+     * Expected Response:
+     *  Status Code: 200
+     *  Response Body: the updated message, with a different ETag
+     */
+    @Test
+    public void getMessageModifiedAfterUpdate() throws IOException, InterruptedException {
+        String eTag = get("/messages/9999", null).headers().firstValue("ETag").orElseThrow();
+        HttpRequest patchRequest = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/messages/9999"))
+                .method("PATCH", HttpRequest.BodyPublishers.ofString("{\"messageText\": \"text changed\"}"))
+                .header("Content-Type", "application/json")
+                .build();
+        Assertions.assertEquals(200, webClient.send(patchRequest, HttpResponse.BodyHandlers.ofString()).statusCode());
+
+        HttpResponse<String> response = get("/messages/9999", eTag);
+        int status = response.statusCode();
+        Assertions.assertEquals(200, status, "Expected Status Code 200 - Actual Code was: " + status);
+        Assertions.assertEquals(new Message(9999, 9999, "text changed", 1669947792L),
+                objectMapper.readValue(response.body(), Message.class));
+        Assertions.assertNotEquals(eTag, response.headers().firstValue("ETag").orElseThrow());
+    }
+
+    /**
+     * Sending GET localhost:8080/accounts/9999/messages, then again with If-None-Match set to the returned ETag,
+     * both before and after another account posts a message
+     *
+     * Expected Response:
+     *  Status Code: 304 each time, since account 9999's messages have not changed
+     */
+    @Test
+    public void getAccountMessagesNotModified() throws IOException, InterruptedException {
+        HttpResponse<String> first = get("/accounts/9999/messages", null);
+        Assertions.assertEquals(200, first.statusCode());
+        String eTag = first.headers().firstValue("ETag").orElseThrow();
+
+        Assertions.assertEquals(304, get("/accounts/9999/messages", eTag).statusCode());
+        Assertions.assertEquals(200, postMessage(9998).statusCode());
+        HttpResponse<String> response = get("/accounts/9999/messages", eTag);
+        int status = response.statusCode();
+        Assertions.assertEquals(304, status, "Expected Status Code 304 - Actual Code was: " + status);
+        Assertions.assertTrue(response.body().isEmpty(), "Expected an empty body but was: " + response.body());
+    }
+
+    /**
+     * Sending GET localhost:8080/accounts/9999/messages, then POST localhost:8080/messages as account 9999,
+     * then GET localhost:8080/accounts/9999/messages with If-None-Match set to the first ETag
+     *
+     * Expected Response:
+     *  Status Code: 200
+     *  Response Body: both of the account's messages
+     */
+    @Test
+    public void getAccountMessagesModifiedAfterPost() throws IOException, InterruptedException {
+        String eTag = get("/accounts/9999/messages", null).headers().firstValue("ETag").orElseThrow();
+        Assertions.assertEquals(200, postMessage(9999).statusCode());
+
+        HttpResponse<String> response = get("/accounts/9999/messages", eTag);
+        int status = response.statusCode();
+        Assertions.assertEquals(200, status, "Expected Status Code 200 - Actual Code was: " + status);
+        List<Message> messages = objectMapper.readValue(response.body(), new TypeReference<List<Message>>(){});
+        Assertions.assertEquals(2, messages.size());
+        Assertions.assertNotEquals(eTag, response.headers().firstValue("ETag").orElseThrow());
+    }
+
+    /**
+     * Sending GET localhost:8080/accounts/9999/messages, then DELETE localhost:8080/messages/9999,
+     * then GET localhost:8080/accounts/9999/messages with If-None-Match set to the first ETag
+     *
+     * Expected Response:
+     *  Status Code: 200
+     *  Response Body: an empty list
+     */
+    @Test
+    public void getAccountMessagesModifiedAfterDelete() throws IOException, InterruptedException {
+        String eTag = get("/accounts/9999/messages", null).headers().firstValue("ETag").orElseThrow();
+        HttpRequest deleteRequest = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/messages/9999"))
+                .DELETE()
+                .build();
+        Assertions.assertEquals("1", webClient.send(deleteRequest, HttpResponse.BodyHandlers.ofString()).body());
+
+        HttpResponse<String> response = get("/accounts/9999/messages", eTag);
+        int status = response.statusCode();
+        Assertions.assertEquals(200, status, "Expected Status Code 200 - Actual Code was: " + status);
+        Assertions.assertEquals("[]", response.body());
+    }
+
+    /**
+     * Sending GET localhost:8080/accounts/9999/messages, then PATCH and DELETE localhost:8080/messages/9997 (posted by
+     * account 9997), then GET localhost:8080/accounts/9999/messages with If-None-Match set to the first ETag
+     *
+     * Expected Response:
+     *  Status Code: 304, since neither change touched account 9999's messages
+     */
+    @Test
+    public void getAccountMessagesNotModifiedByOtherAccounts() throws IOException, InterruptedException {
+        String eTag = get("/accounts/9999/messages", null).headers().firstValue("ETag").orElseThrow();
+        String otherETag = get("/accounts/9997/messages", null).headers().firstValue("ETag").orElseThrow();
+        HttpRequest patchRequest = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/messages/9997"))
+                .method("PATCH", HttpRequest.BodyPublishers.ofString("{\"messageText\": \"edited\"}"))
+                .header("Content-Type", "application/json")
+                .build();
+        Assertions.assertEquals("1", webClient.send(patchRequest, HttpResponse.BodyHandlers.ofString()).body());
+        Assertions.assertEquals(200, get("/accounts/9997/messages", otherETag).statusCode());
+        HttpRequest deleteRequest = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/messages/9997"))
+                .DELETE()
+                .build();
+        Assertions.assertEquals("1", webClient.send(deleteRequest, HttpResponse.BodyHandlers.ofString()).body());
+
+        int status = get("/accounts/9999/messages", eTag).statusCode();
+        Assertions.assertEquals(304, status, "Expected Status Code 304 - Actual Code was: " + status);
+    }
+
+    private HttpResponse<String> get(String path, String ifNoneMatch) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder().uri(URI.create("http://localhost:8080" + path));
+        if(ifNoneMatch != null) {
+            request.header("If-None-Match", ifNoneMatch);
+        }
+        return webClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> postMessage(int postedBy) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/messages"))
+                .POST(HttpRequest.BodyPublishers.ofString("{" +
+                        "\"postedBy\":" + postedBy + ", " +
+                        "\"messageText\": \"hello message\", " +
+                        "\"timePostedEpoch\": 1669947792}"))
+                .header("Content-Type", "application/json")
+                .build();
+        return webClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
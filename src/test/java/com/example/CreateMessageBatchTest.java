@@ -0,0 +1,92 @@
+package com.example;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+
+import com.example.dto.MessageBatchItem;
+import com.example.entity.Message;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class CreateMessageBatchTest {
+    ApplicationContext app;
+    HttpClient webClient;
+    ObjectMapper objectMapper;
+
+    /**
+     * Before every test, reset the database, restart the app, and create a new webClient and ObjectMapper
+     * for interacting locally on the web.
+     * @throws InterruptedException
+     */
+    @BeforeEach
+    public void setUp() throws InterruptedException {
+        webClient = HttpClient.newHttpClient();
+        objectMapper = new ObjectMapper();
+        String[] args = new String[] {};
+        app = SpringApplication.run(SocialMediaApp.class, args);
+        Thread.sleep(500);
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+        Thread.sleep(500);
+        SpringApplication.exit(app);
+    }
+
+    /**
+     * Sending an http request to POST localhost:8080/messages/batch with one valid message, one blank message,
+     * and one message from a user that doesn't exist in db
+     *
+     * Expected Response:
+     *  Status Code: 200
+     *  Response Body: the created message for the first item and an error for each of the other two
+     */
+    @Test
+    public void createMessageBatchReportsEachItem() throws IOException, InterruptedException {
+        String json = "["
+                + "{\"postedBy\":9999,\"messageText\": \"hello message\",\"timePostedEpoch\": 1669947792},"
+                + "{\"postedBy\":9999,\"messageText\": \"\",\"timePostedEpoch\": 1669947792},"
+                + "{\"postedBy\":5050,\"messageText\": \"hello message\",\"timePostedEpoch\": 1669947792}"
+                + "]";
+        HttpRequest postRequest = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/messages/batch"))
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .header("Content-Type", "application/json")
+                .build();
+        HttpResponse<String> response = webClient.send(postRequest, HttpResponse.BodyHandlers.ofString());
+        int status = response.statusCode();
+        Assertions.assertEquals(200, status, "Expected Status Code 200 - Actual Code was: " + status);
+        List<MessageBatchItem> results = objectMapper.readValue(response.body(), new TypeReference<List<MessageBatchItem>>(){});
+        Assertions.assertEquals(3, results.size());
+
+        Assertions.assertEquals(0, results.get(0).getIndex());
+        Assertions.assertNull(results.get(0).getError());
+        Assertions.assertEquals(new Message(1, 9999, "hello message", 1669947792L), results.get(0).getMessage());
+
+        Assertions.assertEquals(1, results.get(1).getIndex());
+        Assertions.assertNull(results.get(1).getMessage());
+        Assertions.assertNotNull(results.get(1).getError());
+
+        Assertions.assertEquals(2, results.get(2).getIndex());
+        Assertions.assertNull(results.get(2).getMessage());
+        Assertions.assertNotNull(results.get(2).getError());
+
+        HttpRequest getRequest = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/messages/1"))
+                .build();
+        HttpResponse<String> getResponse = webClient.send(getRequest, HttpResponse.BodyHandlers.ofString());
+        Assertions.assertEquals(new Message(1, 9999, "hello message", 1669947792L),
+                objectMapper.readValue(getResponse.body(), Message.class));
+    }
+}
@@ -0,0 +1,96 @@
+package com.example;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+
+import com.example.entity.Account;
+import com.example.entity.Message;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class FileStorageTest {
+    ApplicationContext app;
+    HttpClient webClient = HttpClient.newHttpClient();
+    ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    Path storage;
+
+    void start() throws InterruptedException {
+        String[] args = new String[] {"--spring.profiles.active=file",
+                "--socialmedia.storage.path=" + storage.resolve("socialmedia").toAbsolutePath()};
+        app = SpringApplication.run(SocialMediaApp.class, args);
+        Thread.sleep(500);
+    }
+
+    void stop() throws InterruptedException {
+        Thread.sleep(500);
+        SpringApplication.exit(app);
+        app = null;
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+        if(app != null) {
+            stop();
+        }
+    }
+
+    /**
+     * In the file profile, sending POST localhost:8080/register and POST localhost:8080/messages,
+     * restarting the app on the same store, then GET localhost:8080/messages/{messageId}
+     *
+     * Expected Response:
+     *  Status Code: 200
+     *  Response Body: the message created before the restart
+     */
+    @Test
+    public void messagesSurviveRestart() throws IOException, InterruptedException {
+        start();
+        HttpRequest registerRequest = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/register"))
+                .POST(HttpRequest.BodyPublishers.ofString("{\"username\": \"fileuser\", \"password\": \"password\"}"))
+                .header("Content-Type", "application/json")
+                .build();
+        HttpResponse<String> registerResponse = webClient.send(registerRequest, HttpResponse.BodyHandlers.ofString());
+        Assertions.assertEquals(200, registerResponse.statusCode());
+        Account account = objectMapper.readValue(registerResponse.body(), Account.class);
+
+        HttpRequest postRequest = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/messages"))
+                .POST(HttpRequest.BodyPublishers.ofString("{" +
+                        "\"postedBy\":" + account.getAccountId() + ", " +
+                        "\"messageText\": \"stored on disk\", " +
+                        "\"timePostedEpoch\": 1669947792}"))
+                .header("Content-Type", "application/json")
+                .build();
+        HttpResponse<String> postResponse = webClient.send(postRequest, HttpResponse.BodyHandlers.ofString());
+        Assertions.assertEquals(200, postResponse.statusCode());
+        Message created = objectMapper.readValue(postResponse.body(), Message.class);
+        stop();
+
+        start();
+        HttpRequest getRequest = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/messages/" + created.getMessageId()))
+                .build();
+        HttpResponse<String> response = webClient.send(getRequest, HttpResponse.BodyHandlers.ofString());
+        int status = response.statusCode();
+        Assertions.assertEquals(200, status, "Expected Status Code 200 - Actual Code was: " + status);
+        Assertions.assertEquals(created, objectMapper.readValue(response.body(), Message.class));
+
+        // The account is known again after the restart, and new IDs do not collide with stored ones.
+        HttpResponse<String> secondPost = webClient.send(postRequest, HttpResponse.BodyHandlers.ofString());
+        Assertions.assertEquals(200, secondPost.statusCode());
+        Assertions.assertNotEquals(created.getMessageId(), objectMapper.readValue(secondPost.body(), Message.class).getMessageId());
+    }
+}
@@ -0,0 +1,151 @@
+package com.example;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+
+import com.example.entity.Message;
+import com.example.repository.MessageStore;
+import com.example.service.MessageCache;
+import com.example.service.MessageService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class MessageCacheTest {
+    ApplicationContext app;
+    HttpClient webClient;
+    ObjectMapper objectMapper;
+
+    /**
+     * Before every test, reset the database, restart the app, and create a new webClient and ObjectMapper
+     * for interacting locally on the web.
+     * @throws InterruptedException
+     */
+    @BeforeEach
+    public void setUp() throws InterruptedException {
+        webClient = HttpClient.newHttpClient();
+        objectMapper = new ObjectMapper();
+        String[] args = new String[] {};
+        app = SpringApplication.run(SocialMediaApp.class, args);
+        Thread.sleep(500);
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+        Thread.sleep(500);
+        SpringApplication.exit(app);
+    }
+
+    /**
+     * Sending GET localhost:8080/messages/9999 to cache the message, then PATCH localhost:8080/messages/9999,
+     * then GET localhost:8080/messages/9999 again
+     *
+     * Expected Response:
+     *  Status Code: 200
+     *  Response Body: the updated message, not the cached original
+     */
+    @Test
+    public void getMessageAfterUpdateIsNotStale() throws IOException, InterruptedException {
+        HttpRequest getRequest = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/messages/9999"))
+                .build();
+        HttpResponse<String> before = webClient.send(getRequest, HttpResponse.BodyHandlers.ofString());
+        Assertions.assertEquals(new Message(9999, 9999, "test message 1", 1669947792L),
+                objectMapper.readValue(before.body(), Message.class));
+
+        HttpRequest patchRequest = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/messages/9999"))
+                .method("PATCH", HttpRequest.BodyPublishers.ofString("{\"messageText\": \"text changed\"}"))
+                .header("Content-Type", "application/json")
+                .build();
+        HttpResponse<String> patchResponse = webClient.send(patchRequest, HttpResponse.BodyHandlers.ofString());
+        Assertions.assertEquals(200, patchResponse.statusCode());
+
+        HttpResponse<String> after = webClient.send(getRequest, HttpResponse.BodyHandlers.ofString());
+        int status = after.statusCode();
+        Assertions.assertEquals(200, status, "Expected Status Code 200 - Actual Code was: " + status);
+        Assertions.assertEquals(new Message(9999, 9999, "text changed", 1669947792L),
+                objectMapper.readValue(after.body(), Message.class));
+    }
+
+    /**
+     * Sending GET localhost:8080/messages/9999 to cache the message, then DELETE localhost:8080/messages/9999,
+     * then GET localhost:8080/messages/9999 again
+     *
+     * Expected Response:
+     *  Status Code: 200
+     *  Response Body: empty
+     */
+    @Test
+    public void getMessageAfterDeleteIsNotStale() throws IOException, InterruptedException {
+        HttpRequest getRequest = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/messages/9999"))
+                .build();
+        HttpResponse<String> before = webClient.send(getRequest, HttpResponse.BodyHandlers.ofString());
+        Assertions.assertFalse(before.body().isEmpty());
+
+        HttpRequest deleteRequest = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/messages/9999"))
+                .DELETE()
+                .build();
+        HttpResponse<String> deleteResponse = webClient.send(deleteRequest, HttpResponse.BodyHandlers.ofString());
+        Assertions.assertEquals("1", deleteResponse.body());
+
+        HttpResponse<String> after = webClient.send(getRequest, HttpResponse.BodyHandlers.ofString());
+        int status = after.statusCode();
+        Assertions.assertEquals(200, status, "Expected Status Code 200 - Actual Code was: " + status);
+        Assertions.assertTrue(after.body().isEmpty(), "Expected an empty body but was: " + after.body());
+    }
+
+    /**
+     * Reading message 9999 through the cache while a PATCH of it commits: the read loads the old row, then the PATCH
+     * commits and evicts, then the read finishes and tries to cache what it loaded. Then sending
+     * GET localhost:8080/messages/9999
+     *
+     * Expected Response:
+     *  Status Code: 200
+     *  Response Body: the updated message; the racing read must not have cached the old row
+     */
+    @Test
+    public void getMessageRacingUpdateIsNotStale() throws Exception {
+        MessageCache messageCache = app.getBean(MessageCache.class);
+        MessageStore messageStore = app.getBean(MessageStore.class);
+        MessageService messageService = app.getBean(MessageService.class);
+        CountDownLatch loaded = new CountDownLatch(1);
+        CountDownLatch updated = new CountDownLatch(1);
+        CompletableFuture<Message> read = CompletableFuture.supplyAsync(() -> messageCache.get(9999, id -> {
+            Message old = messageStore.findById(id).orElse(null);
+            loaded.countDown();
+            try {
+                updated.await();
+            } catch(InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            return old;
+        }));
+        Assertions.assertTrue(loaded.await(10, TimeUnit.SECONDS));
+        Assertions.assertEquals(1, messageService.updateMessageText("text changed", 9999));
+        updated.countDown();
+        Assertions.assertEquals("test message 1", read.get(10, TimeUnit.SECONDS).getMessageText());
+
+        HttpRequest getRequest = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/messages/9999"))
+                .build();
+        HttpResponse<String> after = webClient.send(getRequest, HttpResponse.BodyHandlers.ofString());
+        int status = after.statusCode();
+        Assertions.assertEquals(200, status, "Expected Status Code 200 - Actual Code was: " + status);
+        Assertions.assertEquals(new Message(9999, 9999, "text changed", 1669947792L),
+                objectMapper.readValue(after.body(), Message.class));
+    }
+}
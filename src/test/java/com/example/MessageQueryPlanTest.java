@@ -0,0 +1,171 @@
+package com.example;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.dto.MessagePage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Checks the plans H2 chooses for the newest-first page queries, using the SQL Hibernate actually sends. A page
+ * should be read from message_postedBy_newest_idx in order, touching about as many rows as it returns per author,
+ * however many messages the author has.
+ */
+public class MessageQueryPlanTest {
+    static final int SEEDED = 2000;
+    static final int SEEDED_UNTIMED = 50;
+    static final int LIMIT = 10;
+    static final Pattern SCAN_COUNT = Pattern.compile("scanCount: (\\d+)");
+
+    ApplicationContext app;
+    HttpClient webClient;
+    ObjectMapper objectMapper;
+    JdbcTemplate jdbcTemplate;
+
+    /**
+     * Records the SQL of every statement Hibernate prepares.
+     */
+    public static class RecordingInspector implements StatementInspector {
+        static final List<String> statements = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            statements.add(sql);
+            return sql;
+        }
+    }
+
+    /**
+     * Before every test, start the app with the recording inspector, and give account 9999 SEEDED timed messages
+     * (IDs 100001 up, times 1669947001 up) and SEEDED_UNTIMED without a time (IDs 200001 up).
+     */
+    @BeforeEach
+    public void setUp() throws InterruptedException {
+        webClient = HttpClient.newHttpClient();
+        objectMapper = new ObjectMapper();
+        String[] args = new String[] {"--spring.jpa.properties.hibernate.session_factory.statement_inspector=" + RecordingInspector.class.getName()};
+        app = SpringApplication.run(SocialMediaApp.class, args);
+        Thread.sleep(500);
+        jdbcTemplate = app.getBean(JdbcTemplate.class);
+        jdbcTemplate.update("INSERT INTO message SELECT 100000 + x, 9999, 'seeded', 1669947000 + x FROM SYSTEM_RANGE(1, " + SEEDED + ")");
+        jdbcTemplate.update("INSERT INTO message SELECT 200000 + x, 9999, 'untimed', NULL FROM SYSTEM_RANGE(1, " + SEEDED_UNTIMED + ")");
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+        Thread.sleep(500);
+        SpringApplication.exit(app);
+    }
+
+    /**
+     * Sending GET localhost:8080/accounts/9999/messages/page?limit=10, then with the returned cursor, then with
+     * cursors placed on the oldest timed message and among the messages without a time
+     *
+     * Expected Response:
+     *  Every query behind the pages reads the index in order ("index sorted") and scans at most a page and one row.
+     */
+    @Test
+    public void accountPagesReadIndexInOrder() throws IOException, InterruptedException {
+        MessagePage first = page(null);
+        assertPlans(9999L, Long.MAX_VALUE, (long) Integer.MAX_VALUE);
+
+        page(first.getNext());
+        String[] keys = new String(Base64.getUrlDecoder().decode(first.getNext()), StandardCharsets.US_ASCII).split(":");
+        assertPlans(9999L, Long.parseLong(keys[0]), Long.parseLong(keys[1]));
+
+        page(cursor(1669947001L, 100001));
+        assertPlans(9999L, 1669947001L, 100001L);
+
+        page(cursor(Long.MIN_VALUE, 200040));
+        assertPlans(9999L, Long.MIN_VALUE, 200040L);
+    }
+
+    /**
+     * With account 9999 following 9998, sending GET localhost:8080/accounts/9999/timeline?limit=10, which builds the
+     * feed, then with cursors older than the feed holds, which read the database
+     *
+     * Expected Response:
+     *  Every query behind the pages reads the index in order ("index sorted") and scans at most a page and one row.
+     */
+    @Test
+    public void timelinePagesReadIndexInOrder() throws IOException, InterruptedException {
+        jdbcTemplate.update("INSERT INTO follow VALUES (9999, 9998)");
+        page("timeline", null);
+        assertPlans(9999L, Long.MAX_VALUE, (long) Integer.MAX_VALUE);
+
+        page("timeline", cursor(1669947001L, 100001));
+        assertPlans(9999L, 1669947001L, 100001L);
+
+        page("timeline", cursor(Long.MIN_VALUE, 200040));
+        assertPlans(9999L, Long.MIN_VALUE, 200040L);
+    }
+
+    private MessagePage page(String cursor) throws IOException, InterruptedException {
+        return page("messages/page", cursor);
+    }
+
+    private MessagePage page(String path, String cursor) throws IOException, InterruptedException {
+        RecordingInspector.statements.clear();
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/accounts/9999/" + path + "?limit=" + LIMIT
+                        + (cursor == null ? "" : "&cursor=" + cursor)))
+                .build();
+        HttpResponse<String> response = webClient.send(request, HttpResponse.BodyHandlers.ofString());
+        int status = response.statusCode();
+        Assertions.assertEquals(200, status, "Expected Status Code 200 - Actual Code was: " + status);
+        return objectMapper.readValue(response.body(), MessagePage.class);
+    }
+
+    /**
+     * Explains each recorded page query with the parameters it was run with: the account, the cursor's time (twice,
+     * for the timed range) and messageId, and the row limit, in the order the query uses them.
+     */
+    private void assertPlans(long accountId, long time, long messageId) {
+        List<String> queries = RecordingInspector.statements.stream()
+                .filter(sql -> sql.contains(" from message ") && sql.contains(" order by "))
+                .collect(Collectors.toList());
+        Assertions.assertFalse(queries.isEmpty(), "No page query was recorded: " + RecordingInspector.statements);
+        for(String sql : queries) {
+            List<Object> parameters = new ArrayList<>();
+            parameters.add(accountId);
+            if(sql.contains("<=")) {
+                parameters.add(time);
+                parameters.add(time);
+            }
+            if(sql.contains("<")) {
+                parameters.add(messageId);
+            }
+            parameters.add(LIMIT + 1);
+            String plan = jdbcTemplate.queryForObject("EXPLAIN ANALYZE " + sql, String.class, parameters.toArray());
+            Assertions.assertTrue(plan.contains("/* index sorted */"), "Expected the index to be read in order: " + plan);
+            Matcher scanCount = SCAN_COUNT.matcher(plan);
+            Assertions.assertTrue(scanCount.find(), plan);
+            Assertions.assertTrue(Integer.parseInt(scanCount.group(1)) <= LIMIT + 2, "Expected a bounded scan: " + plan);
+        }
+    }
+
+    private static String cursor(long time, int messageId) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString((time + ":" + messageId).getBytes(StandardCharsets.US_ASCII));
+    }
+}
@@ -0,0 +1,198 @@
+package com.example;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.entity.Message;
+import com.example.service.MessageSearchIndex;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class MessageSearchTest {
+    ApplicationContext app;
+    HttpClient webClient;
+    ObjectMapper objectMapper;
+
+    /**
+     * Before every test, reset the database, restart the app, and create a new webClient and ObjectMapper
+     * for interacting locally on the web.
+     * @throws InterruptedException
+     */
+    @BeforeEach
+    public void setUp() throws InterruptedException {
+        webClient = HttpClient.newHttpClient();
+        objectMapper = new ObjectMapper();
+        String[] args = new String[] {};
+        app = SpringApplication.run(SocialMediaApp.class, args);
+        Thread.sleep(500);
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+        Thread.sleep(500);
+        SpringApplication.exit(app);
+    }
+
+    /**
+     * Sending GET localhost:8080/messages/search?q=TEST%20Message
+     *
+     * Expected Response:
+     *  Status Code: 200
+     *  Response Body: the three seeded messages, newest first (equal times are ordered by messageId, descending)
+     */
+    @Test
+    public void searchSeededMessages() throws IOException, InterruptedException {
+        List<Message> expectedResult = new ArrayList<>();
+        expectedResult.add(new Message(9999, 9999, "test message 1", 1669947792L));
+        expectedResult.add(new Message(9997, 9997, "test message 2", 1669947792L));
+        expectedResult.add(new Message(9996, 9996, "test message 3", 1669947792L));
+        Assertions.assertEquals(expectedResult, search("TEST Message"));
+    }
+
+    /**
+     * Sending GET localhost:8080/messages/search?q=message%202 and ?q=nothing%20message
+     *
+     * Expected Response:
+     *  Status Code: 200
+     *  Response Body: only messages containing every word; none when any word is unknown
+     */
+    @Test
+    public void searchRequiresEveryWord() throws IOException, InterruptedException {
+        Assertions.assertEquals(List.of(new Message(9997, 9997, "test message 2", 1669947792L)), search("message 2"));
+        Assertions.assertEquals(List.of(), search("nothing message"));
+    }
+
+    /**
+     * Sending POST localhost:8080/messages, PATCH localhost:8080/messages/9999 and DELETE localhost:8080/messages/9997,
+     * then searching
+     *
+     * Expected Response:
+     *  The new message and new text are found, and the edited and deleted messages are no longer found by old words
+     */
+    @Test
+    public void searchFollowsChanges() throws IOException, InterruptedException {
+        HttpRequest postRequest = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/messages"))
+                .POST(HttpRequest.BodyPublishers.ofString("{" +
+                        "\"postedBy\":9998, " +
+                        "\"messageText\": \"Newer test message, about search!\", " +
+                        "\"timePostedEpoch\": 1669947793}"))
+                .header("Content-Type", "application/json")
+                .build();
+        Message created = objectMapper.readValue(webClient.send(postRequest, HttpResponse.BodyHandlers.ofString()).body(), Message.class);
+        HttpRequest patchRequest = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/messages/9999"))
+                .method("PATCH", HttpRequest.BodyPublishers.ofString("{\"messageText\": \"text changed\"}"))
+                .header("Content-Type", "application/json")
+                .build();
+        Assertions.assertEquals(200, webClient.send(patchRequest, HttpResponse.BodyHandlers.ofString()).statusCode());
+        HttpRequest deleteRequest = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/messages/9997"))
+                .DELETE()
+                .build();
+        Assertions.assertEquals("1", webClient.send(deleteRequest, HttpResponse.BodyHandlers.ofString()).body());
+
+        List<Message> expectedResult = new ArrayList<>();
+        expectedResult.add(created);
+        expectedResult.add(new Message(9996, 9996, "test message 3", 1669947792L));
+        Assertions.assertEquals(expectedResult, search("test message"));
+        Assertions.assertEquals(List.of(created), search("search"));
+        Assertions.assertEquals(List.of(new Message(9999, 9999, "text changed", 1669947792L)), search("changed"));
+    }
+
+    /**
+     * Sending GET localhost:8080/messages/search?q=message&limit=2
+     *
+     * Expected Response:
+     *  Status Code: 200
+     *  Response Body: the two most recent matches
+     */
+    @Test
+    public void searchWithLimit() throws IOException, InterruptedException {
+        List<Message> messages = objectMapper.readValue(send("q=message&limit=2").body(), new TypeReference<List<Message>>(){});
+        Assertions.assertEquals(List.of(9999, 9997), List.of(messages.get(0).getMessageId(), messages.get(1).getMessageId()));
+    }
+
+    /**
+     * Sending GET localhost:8080/messages/search?q=%20!%20
+     *
+     * Expected Response:
+     *  Status Code: 400
+     */
+    @Test
+    public void searchWithoutWords() throws IOException, InterruptedException {
+        HttpResponse<String> response = send("q=" + URLEncoder.encode(" ! ", StandardCharsets.UTF_8));
+        int status = response.statusCode();
+        Assertions.assertEquals(400, status, "Expected Status Code 400 - Actual Code was: " + status);
+    }
+
+    /**
+     * Sending POST localhost:8080/messages without a timePostedEpoch, then GET localhost:8080/messages/search?q=test%20message
+     *
+     * Expected Response:
+     *  Status Code: 200 for both
+     *  Response Body: the new message is found, ranked after every message that has a time
+     */
+    @Test
+    public void searchMessageWithoutTime() throws IOException, InterruptedException {
+        HttpRequest postRequest = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/messages"))
+                .POST(HttpRequest.BodyPublishers.ofString("{\"postedBy\":9998, \"messageText\": \"untimed test message\"}"))
+                .header("Content-Type", "application/json")
+                .build();
+        HttpResponse<String> postResponse = webClient.send(postRequest, HttpResponse.BodyHandlers.ofString());
+        Assertions.assertEquals(200, postResponse.statusCode());
+        Message created = objectMapper.readValue(postResponse.body(), Message.class);
+
+        List<Message> messages = search("test message");
+        Assertions.assertEquals(4, messages.size());
+        Assertions.assertEquals(created, messages.get(3));
+        Assertions.assertEquals(List.of(created), search("untimed"));
+    }
+
+    /**
+     * With a message without an author stored directly in the database, reloading the index, then sending
+     * GET localhost:8080/messages/search?q=authorless
+     *
+     * Expected Response:
+     *  Status Code: 200
+     *  Response Body: the message without an author
+     */
+    @Test
+    public void searchMessageWithoutAuthor() throws IOException, InterruptedException {
+        app.getBean(JdbcTemplate.class).update("INSERT INTO message VALUES (100, NULL, 'authorless message', 1669947800)");
+        app.getBean(MessageSearchIndex.class).warm();
+
+        Assertions.assertEquals(List.of(new Message(100, null, "authorless message", 1669947800L)), search("authorless"));
+        Assertions.assertEquals(4, search("message").size());
+    }
+
+    private List<Message> search(String query) throws IOException, InterruptedException {
+        HttpResponse<String> response = send("q=" + URLEncoder.encode(query, StandardCharsets.UTF_8));
+        int status = response.statusCode();
+        Assertions.assertEquals(200, status, "Expected Status Code 200 - Actual Code was: " + status);
+        return objectMapper.readValue(response.body(), new TypeReference<List<Message>>(){});
+    }
+
+    private HttpResponse<String> send(String queryString) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/messages/search?" + queryString))
+                .build();
+        return webClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,82 @@
+package com.example;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+
+public class MetricsEndpointTest {
+    ApplicationContext app;
+    HttpClient webClient;
+
+    /**
+     * Before every test, reset the database, restart the app, and create a new webClient
+     * for interacting locally on the web.
+     * @throws InterruptedException
+     */
+    @BeforeEach
+    public void setUp() throws InterruptedException {
+        webClient = HttpClient.newHttpClient();
+        String[] args = new String[] {};
+        app = SpringApplication.run(SocialMediaApp.class, args);
+        Thread.sleep(500);
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+        Thread.sleep(500);
+        SpringApplication.exit(app);
+    }
+
+    /**
+     * Sending GET localhost:8080/messages/9999 and an invalid POST localhost:8080/messages,
+     * then GET localhost:8080/actuator/prometheus
+     *
+     * Expected Response:
+     *  Status Code: 200
+     *  Response Body: a Prometheus scrape including the endpoint latency histograms, the repository timers,
+     *  the handled-exception counter and the Hikari pool gauges
+     */
+    @Test
+    public void prometheusScrapeIncludesApplicationMetrics() throws IOException, InterruptedException {
+        HttpRequest getRequest = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/messages/9999"))
+                .build();
+        webClient.send(getRequest, HttpResponse.BodyHandlers.ofString());
+
+        HttpRequest postRequest = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/messages"))
+                .POST(HttpRequest.BodyPublishers.ofString("{" +
+                        "\"postedBy\":9999, " +
+                        "\"messageText\": \"\", " +
+                        "\"timePostedEpoch\": 1669947792}"))
+                .header("Content-Type", "application/json")
+                .build();
+        HttpResponse<String> postResponse = webClient.send(postRequest, HttpResponse.BodyHandlers.ofString());
+        Assertions.assertEquals(400, postResponse.statusCode());
+
+        HttpRequest scrapeRequest = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/actuator/prometheus"))
+                .build();
+        HttpResponse<String> response = webClient.send(scrapeRequest, HttpResponse.BodyHandlers.ofString());
+        int status = response.statusCode();
+        Assertions.assertEquals(200, status, "Expected Status Code 200 - Actual Code was: " + status);
+
+        String body = response.body();
+        Assertions.assertTrue(body.contains("http_server_requests_seconds_bucket{") && body.contains("uri=\"/messages/{messageId}\""),
+                "Expected an http.server.requests histogram for /messages/{messageId}");
+        Assertions.assertTrue(body.contains("spring_data_repository_invocations_seconds_bucket{"),
+                "Expected a spring.data.repository.invocations histogram");
+        Assertions.assertTrue(body.contains("socialmedia_exceptions_handled_total{exception=\"BadRequestException\",status=\"400\",} 1.0"),
+                "Expected the BadRequestException counter to be 1");
+        Assertions.assertTrue(body.contains("hikaricp_connections_active{"), "Expected Hikari pool gauges");
+    }
+}
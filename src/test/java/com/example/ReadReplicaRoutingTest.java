@@ -0,0 +1,130 @@
+package com.example;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+
+import com.example.entity.Message;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Runs the app with a second in-memory H2 database as its read replica. Nothing replicates into it: it is seeded
+ * with data.sql plus rows the primary does not have, so each response shows which database served it.
+ */
+public class ReadReplicaRoutingTest {
+    static final String REPLICA_URL = "jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1";
+
+    ApplicationContext app;
+    HttpClient webClient;
+    ObjectMapper objectMapper;
+    Connection replica;
+
+    /**
+     * Before every test, seed the replica, restart the app with a 500ms replica lag allowance, and wait for
+     * the allowance after startup's own writes to pass.
+     */
+    @BeforeEach
+    public void setUp() throws InterruptedException, SQLException {
+        replica = DriverManager.getConnection(REPLICA_URL, "sa", "password");
+        try(Statement statement = replica.createStatement()) {
+            statement.execute("RUNSCRIPT FROM 'classpath:data.sql'");
+            statement.execute("insert into account values (9990, 'replicauser', "
+                    + "'pbkdf2-sha256$310000$gBVIne1iYZjtYWAZXKYY2w==$DOyqZmFsEaqvQj6fEfbH49/HZj1eJmuIOBQ24lgprzI=')");
+            statement.execute("insert into message values (9990, 9999, 'replica message', 1669947792)");
+        }
+        webClient = HttpClient.newHttpClient();
+        objectMapper = new ObjectMapper();
+        String[] args = new String[] {"--socialmedia.datasource.replica.url=" + REPLICA_URL,
+                "--socialmedia.datasource.replica.max-lag=500ms"};
+        app = SpringApplication.run(SocialMediaApp.class, args);
+        Thread.sleep(1000);
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException, SQLException {
+        Thread.sleep(500);
+        SpringApplication.exit(app);
+        try(Statement statement = replica.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+        }
+        replica.close();
+    }
+
+    /**
+     * Sending GET localhost:8080/accounts/9999/messages and POST localhost:8080/login as an account only the
+     * replica has
+     *
+     * Expected Response:
+     *  Status Code: 200
+     *  Response Body: data from the replica
+     */
+    @Test
+    public void readsGoToReplica() throws IOException, InterruptedException {
+        List<Message> messages = accountMessages(9999);
+        Assertions.assertTrue(messages.contains(new Message(9990, 9999, "replica message", 1669947792L)),
+                "Expected the replica's message in " + messages);
+
+        HttpRequest loginRequest = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/login"))
+                .POST(HttpRequest.BodyPublishers.ofString("{\"username\": \"replicauser\", \"password\": \"password\"}"))
+                .header("Content-Type", "application/json")
+                .build();
+        int status = webClient.send(loginRequest, HttpResponse.BodyHandlers.ofString()).statusCode();
+        Assertions.assertEquals(200, status, "Expected Status Code 200 - Actual Code was: " + status);
+    }
+
+    /**
+     * Sending POST localhost:8080/messages, then GET localhost:8080/accounts/9999/messages straight away and
+     * again once the lag allowance has passed
+     *
+     * Expected Response:
+     *  The message is written to the primary and read back from it straight away; later reads go back to the
+     *  replica, which never received it
+     */
+    @Test
+    public void readsAfterWriteStayOnPrimary() throws IOException, InterruptedException {
+        HttpRequest postRequest = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/messages"))
+                .POST(HttpRequest.BodyPublishers.ofString("{" +
+                        "\"postedBy\":9999, " +
+                        "\"messageText\": \"primary message\", " +
+                        "\"timePostedEpoch\": 1669947792}"))
+                .header("Content-Type", "application/json")
+                .build();
+        HttpResponse<String> postResponse = webClient.send(postRequest, HttpResponse.BodyHandlers.ofString());
+        Assertions.assertEquals(200, postResponse.statusCode());
+        Message created = objectMapper.readValue(postResponse.body(), Message.class);
+
+        List<Message> fromPrimary = accountMessages(9999);
+        Assertions.assertTrue(fromPrimary.contains(created), "Expected the new message in " + fromPrimary);
+        Assertions.assertFalse(fromPrimary.contains(new Message(9990, 9999, "replica message", 1669947792L)));
+
+        Thread.sleep(1000);
+        List<Message> fromReplica = accountMessages(9999);
+        Assertions.assertFalse(fromReplica.contains(created), "Expected the replica's messages but got " + fromReplica);
+    }
+
+    private List<Message> accountMessages(int accountId) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/accounts/" + accountId + "/messages"))
+                .build();
+        HttpResponse<String> response = webClient.send(request, HttpResponse.BodyHandlers.ofString());
+        Assertions.assertEquals(200, response.statusCode());
+        return objectMapper.readValue(response.body(), new TypeReference<List<Message>>(){});
+    }
+}
@@ -59,4 +59,36 @@ public class RetrieveAllMessagesTest {
         List<Message> actualResult = objectMapper.readValue(response.body().toString(), new TypeReference<List<Message>>(){});
         Assertions.assertEquals(expectedResult, actualResult, "Expected="+expectedResult + ", Actual="+actualResult);
     }
+
+    /**
+     * Sending POST localhost:8080/messages without a timePostedEpoch, then GET localhost:8080/messages and
+     * GET localhost:8080/accounts/9999/messages
+     *
+     * Expected Response:
+     *  Status Code: 200
+     *  Response Body: both lists include the new message, with a null timePostedEpoch
+     */
+    @Test
+    public void getAllMessagesIncludingOneWithoutTime() throws IOException, InterruptedException {
+        HttpRequest postRequest = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/messages"))
+                .POST(HttpRequest.BodyPublishers.ofString("{\"postedBy\":9999,\"messageText\":\"no time\"}"))
+                .header("Content-Type", "application/json")
+                .build();
+        HttpResponse<String> postResponse = webClient.send(postRequest, HttpResponse.BodyHandlers.ofString());
+        Assertions.assertEquals(200, postResponse.statusCode());
+        Message created = objectMapper.readValue(postResponse.body(), Message.class);
+        Assertions.assertNull(created.getTimePostedEpoch());
+
+        for(String path : new String[] {"/messages", "/accounts/9999/messages"}) {
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create("http://localhost:8080" + path))
+                    .build();
+            HttpResponse<String> response = webClient.send(request, HttpResponse.BodyHandlers.ofString());
+            int status = response.statusCode();
+            Assertions.assertEquals(200, status, "Expected Status Code 200 - Actual Code was: " + status);
+            List<Message> actualResult = objectMapper.readValue(response.body(), new TypeReference<List<Message>>(){});
+            Assertions.assertTrue(actualResult.contains(created), "Expected " + created + " in " + actualResult);
+        }
+    }
 }
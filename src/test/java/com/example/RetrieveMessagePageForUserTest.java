@@ -0,0 +1,152 @@
+package com.example;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+
+import com.example.dto.MessagePage;
+import com.example.entity.Message;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class RetrieveMessagePageForUserTest {
+    ApplicationContext app;
+    HttpClient webClient;
+    ObjectMapper objectMapper;
+
+    /**
+     * Before every test, reset the database, restart the app, and create a new webClient and ObjectMapper
+     * for interacting locally on the web.
+     * @throws InterruptedException
+     */
+    @BeforeEach
+    public void setUp() throws InterruptedException {
+        webClient = HttpClient.newHttpClient();
+        objectMapper = new ObjectMapper();
+        String[] args = new String[] {};
+        app = SpringApplication.run(SocialMediaApp.class, args);
+        Thread.sleep(500);
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+        Thread.sleep(500);
+        SpringApplication.exit(app);
+    }
+
+    /**
+     * Posting three more messages for account 9999, then sending an http request to
+     * GET localhost:8080/accounts/9999/messages/page?limit=2 and following the returned cursor
+     *
+     * Expected Response:
+     *  Status Code: 200
+     *  Response Body: the account's messages newest first, split across two pages
+     */
+    @Test
+    public void getMessagePagesForUserNewestFirst() throws IOException, InterruptedException {
+        List<Message> posted = new ArrayList<Message>();
+        for(long time = 1669947793L; time <= 1669947795L; time++) {
+            String json = "{\"postedBy\":9999,\"messageText\": \"message at " + time + "\",\"timePostedEpoch\": " + time + "}";
+            HttpRequest postMessageRequest = HttpRequest.newBuilder()
+                    .uri(URI.create("http://localhost:8080/messages"))
+                    .POST(HttpRequest.BodyPublishers.ofString(json))
+                    .header("Content-Type", "application/json")
+                    .build();
+            HttpResponse<String> response = webClient.send(postMessageRequest, HttpResponse.BodyHandlers.ofString());
+            posted.add(objectMapper.readValue(response.body(), Message.class));
+        }
+
+        HttpRequest firstRequest = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/accounts/9999/messages/page?limit=2"))
+                .build();
+        HttpResponse<String> firstResponse = webClient.send(firstRequest, HttpResponse.BodyHandlers.ofString());
+        int firstStatus = firstResponse.statusCode();
+        Assertions.assertEquals(200, firstStatus, "Expected Status Code 200 - Actual Code was: " + firstStatus);
+        MessagePage firstPage = objectMapper.readValue(firstResponse.body(), MessagePage.class);
+        List<Message> expectedFirst = new ArrayList<Message>();
+        expectedFirst.add(posted.get(2));
+        expectedFirst.add(posted.get(1));
+        Assertions.assertEquals(expectedFirst, firstPage.getMessages());
+        Assertions.assertNotNull(firstPage.getNext(), "Expected a cursor for the next page.");
+
+        HttpRequest secondRequest = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/accounts/9999/messages/page?limit=2&cursor=" + firstPage.getNext()))
+                .build();
+        HttpResponse<String> secondResponse = webClient.send(secondRequest, HttpResponse.BodyHandlers.ofString());
+        MessagePage secondPage = objectMapper.readValue(secondResponse.body(), MessagePage.class);
+        List<Message> expectedSecond = new ArrayList<Message>();
+        expectedSecond.add(posted.get(0));
+        expectedSecond.add(new Message(9999, 9999, "test message 1", 1669947792L));
+        Assertions.assertEquals(expectedSecond, secondPage.getMessages());
+        Assertions.assertNull(secondPage.getNext(), "Expected no cursor after the last page.");
+    }
+
+    /**
+     * Sending an http request to GET localhost:8080/accounts/9998/messages/page (account has no messages)
+     *
+     * Expected Response:
+     *  Status Code: 200
+     *  Response Body: an empty page with no cursor
+     */
+    @Test
+    public void getMessagePageForUserNoMessages() throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/accounts/9998/messages/page"))
+                .build();
+        HttpResponse<String> response = webClient.send(request, HttpResponse.BodyHandlers.ofString());
+        int status = response.statusCode();
+        Assertions.assertEquals(200, status, "Expected Status Code 200 - Actual Code was: " + status);
+        MessagePage page = objectMapper.readValue(response.body(), MessagePage.class);
+        Assertions.assertTrue(page.getMessages().isEmpty());
+        Assertions.assertNull(page.getNext());
+    }
+
+    /**
+     * Posting two messages for account 9999 without a timePostedEpoch, then sending
+     * GET localhost:8080/accounts/9999/messages/page?limit=1 and following the cursor
+     *
+     * Expected Response:
+     *  Status Code: 200
+     *  Response Body: the timed message first, then the untimed ones, newest messageId first, one per page
+     */
+    @Test
+    public void getMessagePagesForUserWithoutTimes() throws IOException, InterruptedException {
+        List<Message> expected = new ArrayList<Message>();
+        expected.add(new Message(9999, 9999, "test message 1", 1669947792L));
+        for(int i = 0; i < 2; i++) {
+            HttpRequest postMessageRequest = HttpRequest.newBuilder()
+                    .uri(URI.create("http://localhost:8080/messages"))
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"postedBy\":9999,\"messageText\": \"no time " + i + "\"}"))
+                    .header("Content-Type", "application/json")
+                    .build();
+            HttpResponse<String> response = webClient.send(postMessageRequest, HttpResponse.BodyHandlers.ofString());
+            Assertions.assertEquals(200, response.statusCode());
+            expected.add(1, objectMapper.readValue(response.body(), Message.class));
+        }
+
+        List<Message> messages = new ArrayList<Message>();
+        String cursor = null;
+        do {
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create("http://localhost:8080/accounts/9999/messages/page?limit=1" + (cursor == null ? "" : "&cursor=" + cursor)))
+                    .build();
+            HttpResponse<String> response = webClient.send(request, HttpResponse.BodyHandlers.ofString());
+            int status = response.statusCode();
+            Assertions.assertEquals(200, status, "Expected Status Code 200 - Actual Code was: " + status);
+            MessagePage page = objectMapper.readValue(response.body(), MessagePage.class);
+            messages.addAll(page.getMessages());
+            cursor = page.getNext();
+        } while(cursor != null);
+        Assertions.assertEquals(expected, messages);
+    }
+}
@@ -0,0 +1,343 @@
+package com.example;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+
+import com.example.dto.MessagePage;
+import com.example.entity.Message;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Runs the app with its messages split across three in-memory H2 shards, which the tests also open directly to see
+ * where each message was stored.
+ */
+public class ShardedMessageTest {
+    static final int SHARDS = 3;
+    static final Pattern SCAN_COUNT = Pattern.compile("scanCount: (\\d+)");
+
+    ApplicationContext app;
+    HttpClient webClient;
+    ObjectMapper objectMapper;
+
+    /**
+     * Before every test, restart the app with socialmedia.messages.shards=3, and create a new webClient and
+     * ObjectMapper for interacting locally on the web.
+     */
+    @BeforeEach
+    public void setUp() throws InterruptedException {
+        webClient = HttpClient.newHttpClient();
+        objectMapper = new ObjectMapper();
+        String[] args = new String[] {"--socialmedia.messages.shards=" + SHARDS};
+        app = SpringApplication.run(SocialMediaApp.class, args);
+        Thread.sleep(500);
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+        Thread.sleep(500);
+        SpringApplication.exit(app);
+    }
+
+    /**
+     * Sending POST localhost:8080/messages twice for each test account, then GET localhost:8080/messages and
+     * GET localhost:8080/accounts/{accountId}/messages
+     *
+     * Expected Response:
+     *  Each account's messages are stored together on one shard, and more than one shard is used. The full list
+     *  holds every message in messageId order, and each account's list holds only its own.
+     */
+    @Test
+    public void messagesPartitionedByAccount() throws IOException, InterruptedException, SQLException {
+        List<Message> expectedResult = new ArrayList<>();
+        expectedResult.add(new Message(9999, 9999, "test message 1", 1669947792L));
+        expectedResult.add(new Message(9997, 9997, "test message 2", 1669947792L));
+        expectedResult.add(new Message(9996, 9996, "test message 3", 1669947792L));
+        for(int accountId = 9996; accountId <= 9999; accountId++) {
+            expectedResult.add(postMessage(accountId, "first from " + accountId));
+            expectedResult.add(postMessage(accountId, "second from " + accountId));
+        }
+        expectedResult.sort(Comparator.comparing(Message::getMessageId));
+
+        Map<Integer, Integer> shardByAccount = new HashMap<>();
+        for(int shard = 0; shard < SHARDS; shard++) {
+            for(int accountId : storedAuthors(shard)) {
+                Integer previous = shardByAccount.put(accountId, shard);
+                Assertions.assertTrue(previous == null || previous == shard,
+                        "Account " + accountId + " has messages on shards " + previous + " and " + shard);
+            }
+        }
+        Assertions.assertEquals(4, shardByAccount.size());
+        Assertions.assertTrue(shardByAccount.values().stream().distinct().count() > 1, "Expected several shards in use: " + shardByAccount);
+
+        Assertions.assertEquals(expectedResult, get("/messages", new TypeReference<List<Message>>(){}));
+        List<Message> byAccount = get("/accounts/9998/messages", new TypeReference<List<Message>>(){});
+        Assertions.assertEquals(2, byAccount.size());
+        Assertions.assertTrue(byAccount.stream().allMatch(message -> message.getPostedBy() == 9998), "Unexpected " + byAccount);
+    }
+
+    /**
+     * Sending GET localhost:8080/messages/page?limit=2 and following the cursor
+     *
+     * Expected Response:
+     *  Status Code: 200
+     *  Response Body: pages merged from every shard, in messageId order, with no message repeated or missing
+     */
+    @Test
+    public void pagesMergeShardsInOrder() throws IOException, InterruptedException {
+        List<Message> expectedResult = new ArrayList<>(get("/messages", new TypeReference<List<Message>>(){}));
+        for(int accountId = 9996; accountId <= 9999; accountId++) {
+            expectedResult.add(postMessage(accountId, "paged from " + accountId));
+        }
+        expectedResult.sort(Comparator.comparing(Message::getMessageId));
+
+        List<Message> messages = new ArrayList<>();
+        String cursor = null;
+        do {
+            MessagePage page = get("/messages/page?limit=2" + (cursor == null ? "" : "&cursor=" + cursor), new TypeReference<MessagePage>(){});
+            messages.addAll(page.getMessages());
+            cursor = page.getNext();
+        } while(cursor != null);
+        Assertions.assertEquals(expectedResult, messages);
+    }
+
+    /**
+     * Sending GET, PATCH and DELETE localhost:8080/messages/{messageId} for a new message and for one imported from
+     * data.sql
+     *
+     * Expected Response:
+     *  Status Code: 200
+     *  Response Body: the message, its updated text, and 1 for each delete
+     */
+    @Test
+    public void messageByIdOnItsShard() throws IOException, InterruptedException {
+        Message created = postMessage(9998, "routed by id");
+        for(int messageId : new int[] {created.getMessageId(), 9997}) {
+            Assertions.assertEquals(messageId, get("/messages/" + messageId, new TypeReference<Message>(){}).getMessageId());
+
+            HttpRequest patchRequest = HttpRequest.newBuilder()
+                    .uri(URI.create("http://localhost:8080/messages/" + messageId))
+                    .method("PATCH", HttpRequest.BodyPublishers.ofString("{\"messageText\": \"edited\"}"))
+                    .header("Content-Type", "application/json")
+                    .build();
+            Assertions.assertEquals("1", webClient.send(patchRequest, HttpResponse.BodyHandlers.ofString()).body());
+            Assertions.assertEquals("edited", get("/messages/" + messageId, new TypeReference<Message>(){}).getMessageText());
+
+            HttpRequest deleteRequest = HttpRequest.newBuilder()
+                    .uri(URI.create("http://localhost:8080/messages/" + messageId))
+                    .DELETE()
+                    .build();
+            Assertions.assertEquals("1", webClient.send(deleteRequest, HttpResponse.BodyHandlers.ofString()).body());
+        }
+        List<Message> messages = get("/messages", new TypeReference<List<Message>>(){});
+        Assertions.assertEquals(List.of(9996, 9999), messages.stream().map(Message::getMessageId).collect(Collectors.toList()));
+    }
+
+    /**
+     * Sending POST localhost:8080/messages as account 9998 with a messageId of 9999 and no timePostedEpoch, and once
+     * more with a time, then reading the messages by ID, by account page by page, and on the account's timeline
+     *
+     * Expected Response:
+     *  The client's messageId is ignored, so message 9999 is untouched and the new one is found by its own ID.
+     *  The message without a time keeps it null and comes after the timed one in newest-first pages.
+     */
+    @Test
+    public void messageWithoutTimeOrOwnId() throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/messages"))
+                .POST(HttpRequest.BodyPublishers.ofString("{" +
+                        "\"messageId\": 9999, " +
+                        "\"postedBy\": 9998, " +
+                        "\"messageText\": \"untimed\"}"))
+                .header("Content-Type", "application/json")
+                .build();
+        HttpResponse<String> response = webClient.send(request, HttpResponse.BodyHandlers.ofString());
+        Assertions.assertEquals(200, response.statusCode());
+        Message untimed = objectMapper.readValue(response.body(), Message.class);
+        Assertions.assertNotEquals(9999, untimed.getMessageId());
+        Assertions.assertNull(untimed.getTimePostedEpoch());
+        Message timed = postMessage(9998, "timed");
+
+        Assertions.assertEquals(new Message(9999, 9999, "test message 1", 1669947792L), get("/messages/9999", new TypeReference<Message>(){}));
+        Assertions.assertEquals(untimed, get("/messages/" + untimed.getMessageId(), new TypeReference<Message>(){}));
+        Assertions.assertEquals(List.of(untimed, timed), get("/accounts/9998/messages", new TypeReference<List<Message>>(){}));
+
+        for(String path : new String[] {"/accounts/9998/messages/page?limit=1", "/accounts/9998/timeline?limit=1"}) {
+            List<Message> messages = new ArrayList<>();
+            String cursor = null;
+            do {
+                MessagePage page = get(path + (cursor == null ? "" : "&cursor=" + cursor), new TypeReference<MessagePage>(){});
+                messages.addAll(page.getMessages());
+                cursor = page.getNext();
+            } while(cursor != null);
+            Assertions.assertEquals(List.of(timed, untimed), messages, path);
+        }
+    }
+
+    /**
+     * With a message posted for account 9998 and 2000 timed and 50 untimed ones stored directly on its shard, and query statistics switched on
+     * there, sending GET localhost:8080/accounts/9998/messages/page?limit=10 and GET
+     * localhost:8080/accounts/9998/timeline?limit=10, first and with cursors on the oldest timed message and among
+     * the untimed ones
+     *
+     * Expected Response:
+     *  Every page query the shard ran reads message_postedBy_newest_idx in order ("index sorted") and scans at most
+     *  a page and one row.
+     */
+    @Test
+    public void shardPagesReadIndexInOrder() throws IOException, InterruptedException, SQLException {
+        postMessage(9998, "places the account");
+        int shard = 0;
+        while(!storedAuthors(shard).contains(9998)) {
+            shard++;
+        }
+        try(Connection connection = DriverManager.getConnection("jdbc:h2:mem:message_shard_" + shard, "sa", "password");
+                Statement statement = connection.createStatement()) {
+            statement.executeUpdate("INSERT INTO message SELECT 100000 + x, 9998, 'seeded', 1669947000 + x FROM SYSTEM_RANGE(1, 2000)");
+            statement.executeUpdate("INSERT INTO message SELECT 200000 + x, 9998, 'untimed', NULL FROM SYSTEM_RANGE(1, 50)");
+            statement.execute("ANALYZE");
+            statement.execute("SET QUERY_STATISTICS TRUE");
+            for(String path : new String[] {"/accounts/9998/messages/page", "/accounts/9998/timeline"}) {
+                get(path + "?limit=10", new TypeReference<MessagePage>(){});
+                assertPlans(connection, 9998L, Long.MAX_VALUE, Integer.MAX_VALUE);
+                get(path + "?limit=10&cursor=" + cursor(1669947001L, 100001), new TypeReference<MessagePage>(){});
+                assertPlans(connection, 9998L, 1669947001L, 100001);
+                get(path + "?limit=10&cursor=" + cursor(Long.MIN_VALUE, 200040), new TypeReference<MessagePage>(){});
+                assertPlans(connection, 9998L, Long.MIN_VALUE, 200040);
+            }
+        }
+    }
+
+    /**
+     * Starting a second app with shards and the reactive stack, and with shards in memory but a file-backed primary
+     * database
+     *
+     * Expected Response:
+     *  Neither starts.
+     */
+    @Test
+    public void refusesUnsupportedSetups() {
+        String[][] setups = {
+            {"--socialmedia.messages.shards=2", "--server.port=0", "--spring.main.web-application-type=reactive"},
+            {"--socialmedia.messages.shards=2", "--server.port=0", "--spring.datasource.url=jdbc:h2:file:./target/sharded-refused"},
+        };
+        for(String[] args : setups) {
+            Exception ex = Assertions.assertThrows(Exception.class, () -> SpringApplication.run(SocialMediaApp.class, args));
+            Throwable cause = ex;
+            while(cause.getCause() != null && !(cause instanceof IllegalArgumentException)) {
+                cause = cause.getCause();
+            }
+            Assertions.assertTrue(cause.getMessage().contains("socialmedia.messages.shard"), "Unexpected failure: " + ex);
+        }
+    }
+
+    /**
+     * Explains each page query the shard has run since the statistics were last reset, bound as in
+     * MessageQueryPlanTest, then resets them.
+     */
+    private void assertPlans(Connection connection, long accountId, long time, int messageId) throws SQLException {
+        List<String> queries = new ArrayList<>();
+        try(Statement statement = connection.createStatement();
+                ResultSet rows = statement.executeQuery("SELECT SQL_STATEMENT FROM INFORMATION_SCHEMA.QUERY_STATISTICS")) {
+            while(rows.next()) {
+                if(rows.getString(1).startsWith("SELECT") && rows.getString(1).contains("ORDER BY postedBy")) {
+                    queries.add(rows.getString(1));
+                }
+            }
+            statement.execute("SET QUERY_STATISTICS FALSE");
+            statement.execute("SET QUERY_STATISTICS TRUE");
+        }
+        Assertions.assertFalse(queries.isEmpty(), "No page query was recorded");
+        for(String sql : queries) {
+            List<Object> parameters = new ArrayList<>();
+            parameters.add(accountId);
+            if(sql.contains("<=")) {
+                parameters.add(time);
+                parameters.add(time);
+            }
+            if(sql.contains("<")) {
+                parameters.add(messageId);
+            }
+            parameters.add(11);
+            try(PreparedStatement explain = connection.prepareStatement("EXPLAIN ANALYZE " + sql)) {
+                for(int i = 0; i < parameters.size(); i++) {
+                    explain.setObject(i + 1, parameters.get(i));
+                }
+                try(ResultSet plan = explain.executeQuery()) {
+                    plan.next();
+                    String text = plan.getString(1);
+                    Assertions.assertTrue(text.contains("/* index sorted */"), "Expected the index to be read in order: " + text);
+                    Matcher scanCount = SCAN_COUNT.matcher(text);
+                    Assertions.assertTrue(scanCount.find(), text);
+                    Assertions.assertTrue(Integer.parseInt(scanCount.group(1)) <= 12, "Expected a bounded scan: " + text);
+                }
+            }
+        }
+    }
+
+    private static String cursor(long time, int messageId) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString((time + ":" + messageId).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private List<Integer> storedAuthors(int shard) throws SQLException {
+        List<Integer> authors = new ArrayList<>();
+        try(Connection connection = DriverManager.getConnection("jdbc:h2:mem:message_shard_" + shard, "sa", "password");
+                Statement statement = connection.createStatement();
+                ResultSet rows = statement.executeQuery("SELECT DISTINCT postedBy FROM message")) {
+            while(rows.next()) {
+                authors.add(rows.getInt(1));
+            }
+        }
+        return authors;
+    }
+
+    private Message postMessage(int postedBy, String text) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/messages"))
+                .POST(HttpRequest.BodyPublishers.ofString("{" +
+                        "\"postedBy\":" + postedBy + ", " +
+                        "\"messageText\": \"" + text + "\", " +
+                        "\"timePostedEpoch\": 1669947792}"))
+                .header("Content-Type", "application/json")
+                .build();
+        HttpResponse<String> response = webClient.send(request, HttpResponse.BodyHandlers.ofString());
+        Assertions.assertEquals(200, response.statusCode());
+        return objectMapper.readValue(response.body(), Message.class);
+    }
+
+    private <T> T get(String path, TypeReference<T> type) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080" + path))
+                .build();
+        HttpResponse<String> response = webClient.send(request, HttpResponse.BodyHandlers.ofString());
+        int status = response.statusCode();
+        Assertions.assertEquals(200, status, "Expected Status Code 200 - Actual Code was: " + status);
+        return objectMapper.readValue(response.body(), type);
+    }
+}
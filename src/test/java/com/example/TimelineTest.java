@@ -0,0 +1,250 @@
+package com.example;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+
+import com.example.dto.MessagePage;
+import com.example.entity.Message;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class TimelineTest {
+    ApplicationContext app;
+    HttpClient webClient = HttpClient.newHttpClient();
+    ObjectMapper objectMapper = new ObjectMapper();
+
+    void start(String... args) throws InterruptedException {
+        app = SpringApplication.run(SocialMediaApp.class, args);
+        Thread.sleep(500);
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+        Thread.sleep(500);
+        SpringApplication.exit(app);
+    }
+
+    /**
+     * Sending PUT localhost:8080/accounts/9999/following/9997, then GET localhost:8080/accounts/9999/timeline,
+     * then POST localhost:8080/messages as account 9997 and GET the timeline again
+     *
+     * Expected Response:
+     *  Status Code: 200
+     *  Response Body: account 9999's own message and those of account 9997, newest first, including the new one
+     */
+    @Test
+    public void timelineShowsFollowedAccounts() throws IOException, InterruptedException {
+        start();
+        Assertions.assertEquals(200, follow(9999, 9997).statusCode());
+        List<Message> expectedResult = new ArrayList<>();
+        expectedResult.add(new Message(9999, 9999, "test message 1", 1669947792L));
+        expectedResult.add(new Message(9997, 9997, "test message 2", 1669947792L));
+        Assertions.assertEquals(expectedResult, timeline(9999, null, 50).getMessages());
+
+        Message posted = postMessage(9997, 1669947800L);
+        expectedResult.add(0, posted);
+        MessagePage page = timeline(9999, null, 50);
+        Assertions.assertEquals(expectedResult, page.getMessages());
+        Assertions.assertNull(page.getNext());
+    }
+
+    /**
+     * Sending DELETE localhost:8080/accounts/9999/following/9997 after following, then GET the timeline
+     *
+     * Expected Response:
+     *  Status Code: 200
+     *  Response Body: 1 for the unfollow, then only account 9999's own message
+     */
+    @Test
+    public void timelineAfterUnfollow() throws IOException, InterruptedException {
+        start();
+        follow(9999, 9997);
+        Assertions.assertEquals(2, timeline(9999, null, 50).getMessages().size());
+
+        HttpRequest unfollowRequest = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/accounts/9999/following/9997"))
+                .DELETE()
+                .build();
+        Assertions.assertEquals("1", webClient.send(unfollowRequest, HttpResponse.BodyHandlers.ofString()).body());
+        Assertions.assertEquals(List.of(new Message(9999, 9999, "test message 1", 1669947792L)),
+                timeline(9999, null, 50).getMessages());
+    }
+
+    /**
+     * Sending GET localhost:8080/accounts/9999/timeline?limit=1 and following the cursor
+     *
+     * Expected Response:
+     *  Each page holds one message, newest first, and the last page has no cursor
+     */
+    @Test
+    public void timelinePages() throws IOException, InterruptedException {
+        start();
+        follow(9999, 9997);
+        follow(9999, 9996);
+        assertPagesInOrder(9999, 3);
+    }
+
+    /**
+     * With a feed of only 2 entries, sending GET localhost:8080/accounts/9999/timeline?limit=1 page by page
+     *
+     * Expected Response:
+     *  Pages older than the feed retains are still returned in order, read from the database instead
+     */
+    @Test
+    public void timelinePagesBeyondFeed() throws IOException, InterruptedException {
+        start("--socialmedia.timeline.feed-size=2");
+        follow(9999, 9997);
+        follow(9999, 9996);
+        postMessage(9997, 1669947800L);
+        assertPagesInOrder(9999, 4);
+    }
+
+    /**
+     * With fan-out-limit=0, so followed accounts' messages are pulled at read time rather than pushed,
+     * sending POST localhost:8080/messages as account 9997 after 9999 has read its timeline
+     *
+     * Expected Response:
+     *  The new message still appears at the top of account 9999's timeline
+     */
+    @Test
+    public void timelinePullsFromWidelyFollowedAccounts() throws IOException, InterruptedException {
+        start("--socialmedia.timeline.fan-out-limit=0");
+        follow(9999, 9997);
+        Assertions.assertEquals(2, timeline(9999, null, 50).getMessages().size());
+
+        Message posted = postMessage(9997, 1669947800L);
+        List<Message> messages = timeline(9999, null, 50).getMessages();
+        Assertions.assertEquals(3, messages.size());
+        Assertions.assertEquals(posted, messages.get(0));
+    }
+
+    /**
+     * With a feed of only 2 entries, sending POST localhost:8080/messages without a timePostedEpoch as accounts 9997
+     * and 9999 after 9999 has read its timeline, then GET localhost:8080/accounts/9999/timeline?limit=1 page by page
+     *
+     * Expected Response:
+     *  Status Code: 200
+     *  Response Body: the timed messages first, then the untimed ones, newest messageId first
+     */
+    @Test
+    public void timelineWithMessagesWithoutTime() throws IOException, InterruptedException {
+        start("--socialmedia.timeline.feed-size=2");
+        follow(9999, 9997);
+        Assertions.assertEquals(2, timeline(9999, null, 50).getMessages().size());
+        Message first = postMessage(9997, null);
+        Message second = postMessage(9999, null);
+
+        List<Message> expectedResult = new ArrayList<>();
+        expectedResult.add(new Message(9999, 9999, "test message 1", 1669947792L));
+        expectedResult.add(new Message(9997, 9997, "test message 2", 1669947792L));
+        expectedResult.add(second);
+        expectedResult.add(first);
+        List<Message> messages = new ArrayList<>();
+        String cursor = null;
+        do {
+            MessagePage page = timeline(9999, cursor, 1);
+            messages.addAll(page.getMessages());
+            cursor = page.getNext();
+        } while(cursor != null);
+        Assertions.assertEquals(expectedResult, messages);
+    }
+
+    /**
+     * Sending DELETE localhost:8080/messages/9996 after account 9999 has read a timeline that shows it, then GET
+     * localhost:8080/accounts/9999/timeline?limit=1 page by page
+     *
+     * Expected Response:
+     *  Every page holds one message, and the page holding the last remaining message has no cursor
+     */
+    @Test
+    public void timelineAfterDelete() throws IOException, InterruptedException {
+        start();
+        follow(9999, 9997);
+        follow(9999, 9996);
+        Assertions.assertEquals(3, timeline(9999, null, 50).getMessages().size());
+
+        HttpRequest deleteRequest = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/messages/9996"))
+                .DELETE()
+                .build();
+        Assertions.assertEquals("1", webClient.send(deleteRequest, HttpResponse.BodyHandlers.ofString()).body());
+        assertPagesInOrder(9999, 2);
+    }
+
+    /**
+     * Sending PUT localhost:8080/accounts/9999/following/9999 and PUT localhost:8080/accounts/9999/following/1
+     *
+     * Expected Response:
+     *  Status Code: 400
+     */
+    @Test
+    public void followInvalid() throws IOException, InterruptedException {
+        start();
+        int status = follow(9999, 9999).statusCode();
+        Assertions.assertEquals(400, status, "Expected Status Code 400 - Actual Code was: " + status);
+        status = follow(9999, 1).statusCode();
+        Assertions.assertEquals(400, status, "Expected Status Code 400 - Actual Code was: " + status);
+    }
+
+    private void assertPagesInOrder(int accountId, int expectedMessages) throws IOException, InterruptedException {
+        List<Message> messages = new ArrayList<>();
+        String cursor = null;
+        do {
+            MessagePage page = timeline(accountId, cursor, 1);
+            Assertions.assertEquals(1, page.getMessages().size());
+            messages.addAll(page.getMessages());
+            cursor = page.getNext();
+        } while(cursor != null);
+        Assertions.assertEquals(expectedMessages, messages.size());
+        for(int i = 1; i < messages.size(); i++) {
+            Message newer = messages.get(i - 1);
+            Message older = messages.get(i);
+            Assertions.assertTrue(newer.getTimePostedEpoch() > older.getTimePostedEpoch()
+                    || newer.getTimePostedEpoch().equals(older.getTimePostedEpoch()) && newer.getMessageId() > older.getMessageId(),
+                    "Expected " + newer + " before " + older);
+        }
+    }
+
+    private HttpResponse<String> follow(int accountId, int followedId) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/accounts/" + accountId + "/following/" + followedId))
+                .PUT(HttpRequest.BodyPublishers.noBody())
+                .build();
+        return webClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private MessagePage timeline(int accountId, String cursor, int limit) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/accounts/" + accountId + "/timeline?limit=" + limit
+                        + (cursor == null ? "" : "&cursor=" + cursor)))
+                .build();
+        HttpResponse<String> response = webClient.send(request, HttpResponse.BodyHandlers.ofString());
+        int status = response.statusCode();
+        Assertions.assertEquals(200, status, "Expected Status Code 200 - Actual Code was: " + status);
+        return objectMapper.readValue(response.body(), MessagePage.class);
+    }
+
+    private Message postMessage(int postedBy, Long timePostedEpoch) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/messages"))
+                .POST(HttpRequest.BodyPublishers.ofString("{" +
+                        "\"postedBy\":" + postedBy + ", " +
+                        "\"messageText\": \"hello followers\"" +
+                        (timePostedEpoch == null ? "" : ", \"timePostedEpoch\": " + timePostedEpoch) + "}"))
+                .header("Content-Type", "application/json")
+                .build();
+        HttpResponse<String> response = webClient.send(request, HttpResponse.BodyHandlers.ofString());
+        Assertions.assertEquals(200, response.statusCode());
+        return objectMapper.readValue(response.body(), Message.class);
+    }
+}
@@ -0,0 +1,51 @@
+package com.example;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+
+public class VirtualThreadModeTest {
+
+    /**
+     * Starting the app with --socialmedia.threads.virtual=true, then sending GET localhost:8080/messages/9999
+     *
+     * Expected Response on a Java 21+ runtime:
+     *  Status Code: 200
+     *  Response Body: the message, handled on a virtual thread
+     * On an older runtime the app must refuse to start rather than silently fall back to the Tomcat pool.
+     */
+    @Test
+    public void virtualThreadModeServesRequestsOrFailsFast() throws IOException, InterruptedException {
+        String[] args = new String[] {"--socialmedia.threads.virtual=true"};
+        if(Runtime.version().feature() < 21) {
+            Exception ex = Assertions.assertThrows(Exception.class, () -> SpringApplication.run(SocialMediaApp.class, args));
+            Throwable cause = ex;
+            while(cause.getCause() != null && !(cause instanceof IllegalStateException)) {
+                cause = cause.getCause();
+            }
+            Assertions.assertTrue(cause.getMessage().contains("requires a Java 21+ runtime"), "Unexpected failure: " + ex);
+            return;
+        }
+
+        ApplicationContext app = SpringApplication.run(SocialMediaApp.class, args);
+        try {
+            Thread.sleep(500);
+            HttpRequest getRequest = HttpRequest.newBuilder()
+                    .uri(URI.create("http://localhost:8080/messages/9999"))
+                    .build();
+            HttpResponse<String> response = HttpClient.newHttpClient().send(getRequest, HttpResponse.BodyHandlers.ofString());
+            int status = response.statusCode();
+            Assertions.assertEquals(200, status, "Expected Status Code 200 - Actual Code was: " + status);
+            Assertions.assertTrue(response.body().contains("\"messageId\":9999"));
+        } finally {
+            SpringApplication.exit(app);
+        }
+    }
+}
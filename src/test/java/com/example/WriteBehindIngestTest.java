@@ -0,0 +1,139 @@
+package com.example;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+
+import com.example.entity.Message;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class WriteBehindIngestTest {
+    ApplicationContext app;
+    HttpClient webClient = HttpClient.newHttpClient();
+    ObjectMapper objectMapper = new ObjectMapper();
+
+    void start(String ack) throws InterruptedException {
+        String[] args = new String[] {"--socialmedia.ingest.mode=write-behind", "--socialmedia.ingest.ack=" + ack};
+        app = SpringApplication.run(SocialMediaApp.class, args);
+        Thread.sleep(500);
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+        Thread.sleep(500);
+        SpringApplication.exit(app);
+    }
+
+    /**
+     * With ack=flush, sending POST localhost:8080/messages, then GET localhost:8080/messages/1
+     *
+     * Expected Response:
+     *  Status Code: 200
+     *  Response Body: the created message with its assigned messageId, already readable once acknowledged
+     */
+    @Test
+    public void createMessageAcknowledgedAfterFlush() throws IOException, InterruptedException {
+        start("flush");
+        HttpResponse<String> response = webClient.send(postMessage(9999, "hello message"), HttpResponse.BodyHandlers.ofString());
+        int status = response.statusCode();
+        Assertions.assertEquals(200, status, "Expected Status Code 200 - Actual Code was: " + status);
+        Message expectedResult = new Message(1, 9999, "hello message", 1669947792L);
+        Assertions.assertEquals(expectedResult, objectMapper.readValue(response.body(), Message.class));
+
+        Assertions.assertEquals(expectedResult, objectMapper.readValue(getMessage(1).body(), Message.class));
+    }
+
+    /**
+     * With ack=enqueue, sending POST localhost:8080/messages, then GET localhost:8080/messages/1 until it appears
+     *
+     * Expected Response:
+     *  Status Code: 200
+     *  Response Body: the created message with its assigned messageId, readable once the writer has flushed it
+     */
+    @Test
+    public void createMessageAcknowledgedOnEnqueue() throws IOException, InterruptedException {
+        start("enqueue");
+        HttpResponse<String> response = webClient.send(postMessage(9999, "hello message"), HttpResponse.BodyHandlers.ofString());
+        int status = response.statusCode();
+        Assertions.assertEquals(200, status, "Expected Status Code 200 - Actual Code was: " + status);
+        Message expectedResult = new Message(1, 9999, "hello message", 1669947792L);
+        Assertions.assertEquals(expectedResult, objectMapper.readValue(response.body(), Message.class));
+
+        String body = "";
+        for(int attempt = 0; attempt < 50 && body.isEmpty(); attempt++) {
+            Thread.sleep(20);
+            body = getMessage(1).body();
+        }
+        Assertions.assertEquals(expectedResult, objectMapper.readValue(body, Message.class));
+    }
+
+    /**
+     * In write-behind mode, sending POST localhost:8080/messages with invalid text or an unknown author
+     *
+     * Expected Response:
+     *  Status Code: 400, as in the synchronous mode
+     */
+    @Test
+    public void createMessageStillValidated() throws IOException, InterruptedException {
+        start("enqueue");
+        Assertions.assertEquals(400, webClient.send(postMessage(9999, ""), HttpResponse.BodyHandlers.ofString()).statusCode());
+        Assertions.assertEquals(400, webClient.send(postMessage(1, "hello message"), HttpResponse.BodyHandlers.ofString()).statusCode());
+    }
+
+    /**
+     * With ack=flush, sending POST localhost:8080/messages concurrently, one of them without a timePostedEpoch
+     *
+     * Expected Response:
+     *  Status Code: 200 for every post, whether or not they share a batch
+     *  Response Body: each created message, readable by its messageId
+     */
+    @Test
+    public void createMessagesWithAndWithoutTime() throws IOException, InterruptedException {
+        start("flush");
+        HttpRequest untimed = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/messages"))
+                .POST(HttpRequest.BodyPublishers.ofString("{\"postedBy\":9999, \"messageText\": \"no time\"}"))
+                .header("Content-Type", "application/json")
+                .build();
+        List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+        responses.add(webClient.sendAsync(postMessage(9999, "first"), HttpResponse.BodyHandlers.ofString()));
+        responses.add(webClient.sendAsync(untimed, HttpResponse.BodyHandlers.ofString()));
+        responses.add(webClient.sendAsync(postMessage(9998, "second"), HttpResponse.BodyHandlers.ofString()));
+        for(CompletableFuture<HttpResponse<String>> future : responses) {
+            HttpResponse<String> response = future.join();
+            int status = response.statusCode();
+            Assertions.assertEquals(200, status, "Expected Status Code 200 - Actual Code was: " + status);
+            Message created = objectMapper.readValue(response.body(), Message.class);
+            Assertions.assertEquals(created, objectMapper.readValue(getMessage(created.getMessageId()).body(), Message.class));
+        }
+    }
+
+    private HttpRequest postMessage(int postedBy, String messageText) {
+        return HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/messages"))
+                .POST(HttpRequest.BodyPublishers.ofString("{" +
+                        "\"postedBy\":" + postedBy + ", " +
+                        "\"messageText\": \"" + messageText + "\", " +
+                        "\"timePostedEpoch\": 1669947792}"))
+                .header("Content-Type", "application/json")
+                .build();
+    }
+
+    private HttpResponse<String> getMessage(int messageId) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/messages/" + messageId))
+                .build();
+        return webClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}